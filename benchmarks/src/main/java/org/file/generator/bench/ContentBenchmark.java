@@ -0,0 +1,51 @@
+package org.file.generator.bench;
+
+import org.file.generator.ContentSource;
+import org.file.generator.RandomBlockPool;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filler generation alone: per-character PRNG vs. copies out of the block pool, and the
+ * {@code String} path the POI/PDFBox engines use (the old {@code randomString}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ContentBenchmark {
+
+    @Param({"prng", "pool"})
+    public String source;
+
+    @Param({"10", "100", "4096"})
+    public int length;
+
+    private ContentSource content;
+    private ByteBuffer buf;
+    private SplittableRandom rnd;
+
+    @Setup
+    public void setup() {
+        content = source.equals("pool") ? RandomBlockPool.create(RandomBlockPool.DEFAULT_SIZE, 1) : ContentSource.PRNG;
+        buf = ByteBuffer.allocateDirect(64 * 1024);
+        rnd = new SplittableRandom(1);
+    }
+
+    @Benchmark
+    public ByteBuffer fill() {
+        if (buf.remaining() < length) buf.clear();
+        content.fill(buf, length, rnd);
+        return buf;
+    }
+
+    @Benchmark
+    public String text() {
+        return content.text(length, rnd);
+    }
+}
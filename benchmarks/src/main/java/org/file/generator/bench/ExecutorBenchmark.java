@@ -0,0 +1,128 @@
+package org.file.generator.bench;
+
+import org.file.generator.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * A batch of small TXT files on disk under the scheduling strategies of V2–V6:
+ * fixed pools of one or two threads per core with {@code invokeAll} (V2, V3/V4), virtual threads
+ * with {@code invokeAll} (V5), one {@code CompletableFuture} per file (V6 originally) and lazy
+ * submission behind a semaphore window (V6 now).
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class ExecutorBenchmark {
+
+    @Param({"fixed-ncpu", "fixed-2ncpu", "virtual-invokeAll", "virtual-futures", "virtual-window"})
+    public String strategy;
+
+    @Param({"2000"})
+    public int files;
+
+    @Param({"51200"})
+    public long size;
+
+    private FormatGenerator generator;
+    private ContentSource content;
+    private Path dir;
+
+    @Setup
+    public void setup() throws IOException {
+        generator = FormatGenerators.load().select("txt", Map.of());
+        content = RandomBlockPool.create(RandomBlockPool.DEFAULT_SIZE, 1);
+        dir = Files.createTempDirectory("executor-bench");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+
+    private void createFile(long index) throws IOException {
+        FileChannel channel = FileChannel.open(dir.resolve("file_" + index + ".txt"), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try (ByteSink sink = ByteSink.of(channel)) {
+            generator.write(new FileSpec("txt", index, size, new SplittableRandom(index), content), sink);
+        }
+    }
+
+    @Benchmark
+    public void run() throws Exception {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        switch (strategy) {
+            case "fixed-ncpu" -> invokeAll(Executors.newFixedThreadPool(cpus));
+            case "fixed-2ncpu" -> invokeAll(Executors.newFixedThreadPool(cpus * 2));
+            case "virtual-invokeAll" -> invokeAll(Executors.newVirtualThreadPerTaskExecutor());
+            case "virtual-futures" -> {
+                try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                    List<CompletableFuture<Void>> futures = new ArrayList<>();
+                    for (long i = 1; i <= files; i++) {
+                        long index = i;
+                        futures.add(CompletableFuture.runAsync(() -> {
+                            try {
+                                createFile(index);
+                            } catch (IOException e) {
+                                throw new CompletionException(e);
+                            }
+                        }, executor));
+                    }
+                    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+                }
+            }
+            case "virtual-window" -> {
+                int window = 1024;
+                Semaphore permits = new Semaphore(window);
+                try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                    for (long i = 1; i <= files; i++) {
+                        long index = i;
+                        permits.acquire();
+                        executor.execute(() -> {
+                            try {
+                                createFile(index);
+                            } catch (IOException e) {
+                                throw new CompletionException(e);
+                            } finally {
+                                permits.release();
+                            }
+                        });
+                    }
+                    permits.acquire(window);
+                }
+            }
+            default -> throw new IllegalArgumentException(strategy);
+        }
+    }
+
+    private void invokeAll(ExecutorService executor) throws InterruptedException {
+        try (executor) {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (long i = 1; i <= files; i++) {
+                long index = i;
+                tasks.add(() -> {
+                    createFile(index);
+                    return null;
+                });
+            }
+            executor.invokeAll(tasks);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.file.generator.bench;
+
+import org.file.generator.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One file per invocation, per engine and size bucket, written to a discarding sink so only
+ * generation and encoding are measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class FormatBenchmark {
+
+    @Param({"txt:raw", "txt:writer", "csv:raw", "csv:writer", "xlsx:poi", "docx:poi", "pdf:stream", "pdf:pdfbox"})
+    public String engine;
+
+    @Param({"51200", "5242880", "104857600"})
+    public long size;
+
+    private FormatGenerator generator;
+    private ContentSource content;
+    private long index;
+
+    @Setup
+    public void setup() throws IOException {
+        String[] fe = engine.split(":");
+        generator = FormatGenerators.load().select(fe[0], Map.of(fe[0], fe[1]));
+        content = RandomBlockPool.create(RandomBlockPool.DEFAULT_SIZE, 1);
+        if (generator instanceof CalibratedFormatGenerator calibrated) calibrated.calibrate(content);
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        long i = index++;
+        try (ByteSink sink = ByteSink.discard()) {
+            return generator.write(new FileSpec(generator.format(), i, size, new SplittableRandom(i), content), sink);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.file.generator.bench;
+
+import org.file.generator.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing one large TXT file to disk: the BufferedWriter engine vs. the raw engine through a
+ * {@code FileChannel} ({@code --io=stream}), through mapped windows ({@code --io=mmap}) and through
+ * a separate I/O stage ({@code --io=pipeline}, default depth and threads).
+ * Set {@code -Djava.io.tmpdir} to the device under test.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class IoModeBenchmark {
+
+    @Param({"writer", "stream", "mmap", "pipeline"})
+    public String mode;
+
+    @Param({"104857600", "314572800"})
+    public long size;
+
+    private FormatGenerator generator;
+    private ContentSource content;
+    private Path file;
+    private BufferPool buffers;
+    private WriteStage stage;
+
+    @Setup
+    public void setup() throws IOException {
+        generator = FormatGenerators.load().select("txt", Map.of("txt", mode.equals("writer") ? "writer" : "raw"));
+        content = RandomBlockPool.create(RandomBlockPool.DEFAULT_SIZE, 1);
+        file = Files.createTempFile("io-mode", ".txt");
+        buffers = new BufferPool(ByteSink.DEFAULT_BUFFER_SIZE, 256 + 4 + 1);
+        stage = new WriteStage(buffers, 4, 256);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        stage.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteSink sink = switch (mode) {
+            case "mmap" -> ByteSink.mapped(channel, size);
+            case "pipeline" -> stage.open(channel);
+            default -> ByteSink.of(channel, buffers);
+        };
+        try (sink) {
+            return generator.write(new FileSpec("txt", 1, size, new SplittableRandom(1), content), sink);
+        }
+    }
+}
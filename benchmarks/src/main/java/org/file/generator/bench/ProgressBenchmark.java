@@ -0,0 +1,60 @@
+package org.file.generator.bench;
+
+import org.file.generator.FormatMetrics;
+import org.file.generator.RunMetrics;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cost of reporting one finished file when many workers finish at once: the V4–V6 progress bar
+ * (shared counter, two repeated strings, synchronized print) vs. bare counters and the
+ * {@link FormatMetrics} record the sampling renderer reads instead.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ProgressBenchmark {
+
+    private static final int TOTAL = 1_000_000;
+
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicLong counter = new AtomicLong();
+    private final LongAdder adder = new LongAdder();
+    private final PrintStream out = new PrintStream(OutputStream.nullOutputStream());
+    private final FormatMetrics metrics = new RunMetrics(0).add("txt", "raw");
+
+    @Benchmark
+    public void printProgressBar() {
+        int done = completed.incrementAndGet() % TOTAL;
+        int width = 50;
+        int filled = (done * width) / TOTAL;
+        String bar = "=".repeat(filled) + " ".repeat(width - filled);
+        out.print("\r[" + bar + "] " + (100 * done / TOTAL) + "% (" + done + "/" + TOTAL + ")");
+    }
+
+    @Benchmark
+    public long atomicLong() {
+        return counter.incrementAndGet();
+    }
+
+    @Benchmark
+    public void longAdder() {
+        adder.increment();
+    }
+
+    @Benchmark
+    public void formatMetrics() {
+        long now = System.nanoTime();
+        metrics.completed(now - 1_000_000, now, 51200, 51200);
+    }
+}
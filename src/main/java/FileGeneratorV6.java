@@ -1,21 +1,43 @@
-import org.apache.pdfbox.pdmodel.*;
-import org.apache.pdfbox.pdmodel.font.PDType1Font;
-import org.apache.pdfbox.pdmodel.common.PDRectangle;
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.streaming.SXSSFWorkbook;
-import org.apache.poi.xwpf.usermodel.*;
+import org.file.generator.ArchiveWriter;
+import org.file.generator.BulkGenerator;
+import org.file.generator.ByteSink;
+import org.file.generator.CalibratedFormatGenerator;
+import org.file.generator.ContentSource;
+import org.file.generator.CsvSchema;
+import org.file.generator.Destination;
+import org.file.generator.DirectoryDestination;
+import org.file.generator.Fanout;
+import org.file.generator.FillMode;
+import org.file.generator.FormatGenerator;
+import org.file.generator.FormatGenerators;
+import org.file.generator.IoMode;
+import org.file.generator.Journal;
+import org.file.generator.ProgressRenderer;
+import org.file.generator.RandomBlockPool;
+import org.file.generator.RunMetrics;
+import org.file.generator.Seeds;
+import org.file.generator.ShapedContent;
+import org.file.generator.Shard;
+import org.file.generator.SizeDistribution;
+import org.file.generator.SizeDistributions;
+import org.file.generator.SizeModel;
+import org.file.generator.SizeProfile;
+import org.file.generator.SxssfPolicy;
 
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
-import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 public class FileGeneratorV6 {
 
-    private static final Random random = new Random();
-    private static final char[] CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+    /** Upper bound of heavy-tailed sizes when no --max-size is given. */
+    private static final long MAX_UNBOUNDED_SIZE = 1L << 40;
+    /** Targets above this get a warning for engines that hold the whole file in memory. */
+    private static final long LARGE_FILE_SIZE = 256L * 1024 * 1024;
+    private static final int DEFAULT_MAX_IN_FLIGHT = BulkGenerator.DEFAULT_CONCURRENCY;
+    private static final int DEFAULT_IO_THREADS = 4;
+    private static final int DEFAULT_IO_DEPTH = 256;
 
     public static void main(String[] args) throws Exception {
 
@@ -23,69 +45,283 @@ public class FileGeneratorV6 {
             printUsage();
             return;
         }
+        if (args[0].equals("merge-reports")) {
+            mergeReports(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args[0].equals("profile")) {
+            profile(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
 
         // Defaults
         String outputFolder = "output";
-        int totalFiles = 100;
+        long totalFiles = 100;
         Set<String> formats = new LinkedHashSet<>(List.of("txt","csv","xlsx","docx","pdf"));
-        int minSizeKB = 50;
-        int maxSizeKB = 500;
+        long minSize = 50 * 1024;
+        long maxSize = 500 * 1024;
+        boolean minSizeGiven = false;
+        boolean maxSizeGiven = false;
+        String sizeDistSpec = "uniform";
+        Map<String, String> engines = Map.of();
+        IoMode ioMode = IoMode.STREAM;
+        FillMode fillMode = FillMode.CONTENT;
+        int ioThreads = DEFAULT_IO_THREADS;
+        int ioDepth = DEFAULT_IO_DEPTH;
+        long seed = Seeds.randomSeed();
+        int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+        double sizeTolerance = 0.02;
+        int poolSizeKB = RandomBlockPool.DEFAULT_SIZE / 1024;
+        double compressibility = 0;
+        double dedup = 0;
+        int dedupBlockSize = ShapedContent.DEFAULT_BLOCK_SIZE;
+        CsvSchema csvSchema = null;
+        String csvSchemaSpec = "";
+        SxssfPolicy xlsxPolicy = SxssfPolicy.DEFAULT;
+        boolean xlsxPolicyGiven = false;
+        boolean seedGiven = false;
+        boolean resume = false;
+        boolean trainCds = false;
+        Fanout fanout = Fanout.FLAT;
+        Shard shard = Shard.ALL;
+        String archiveSpec = null;
+        Path reportPath = null;
+        ProgressRenderer.Mode progressMode = ProgressRenderer.Mode.AUTO;
 
         // Parse CLI arguments
         for (String arg : args) {
             if (arg.startsWith("--output=")) {
                 outputFolder = arg.substring("--output=".length());
             } else if (arg.startsWith("--total=")) {
-                totalFiles = Integer.parseInt(arg.substring("--total=".length()));
+                totalFiles = Long.parseLong(arg.substring("--total=".length()));
             } else if (arg.startsWith("--formats=")) {
                 String[] f = arg.substring("--formats=".length()).split(",");
                 formats = new LinkedHashSet<>(Arrays.asList(f));
             } else if (arg.startsWith("--min-size=")) {
-                minSizeKB = parseSize(arg.substring("--min-size=".length()));
+                minSize = parseSize(arg.substring("--min-size=".length()));
+                minSizeGiven = true;
             } else if (arg.startsWith("--max-size=")) {
-                maxSizeKB = parseSize(arg.substring("--max-size=".length()));
+                maxSize = parseSize(arg.substring("--max-size=".length()));
+                maxSizeGiven = true;
+            } else if (arg.startsWith("--size-dist=")) {
+                sizeDistSpec = arg.substring("--size-dist=".length());
+            } else if (arg.startsWith("--engine=")) {
+                engines = FormatGenerators.parseEngines(arg.substring("--engine=".length()));
+            } else if (arg.startsWith("--io=")) {
+                ioMode = IoMode.parse(arg.substring("--io=".length()));
+            } else if (arg.startsWith("--io-threads=")) {
+                ioThreads = Integer.parseInt(arg.substring("--io-threads=".length()));
+            } else if (arg.startsWith("--io-depth=")) {
+                ioDepth = Integer.parseInt(arg.substring("--io-depth=".length()));
+            } else if (arg.startsWith("--fill=")) {
+                fillMode = FillMode.parse(arg.substring("--fill=".length()));
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(arg.substring("--seed=".length()));
+                seedGiven = true;
+            } else if (arg.startsWith("--max-in-flight=")) {
+                maxInFlight = Integer.parseInt(arg.substring("--max-in-flight=".length()));
+            } else if (arg.startsWith("--size-tolerance=")) {
+                sizeTolerance = parseTolerance(arg.substring("--size-tolerance=".length()));
+            } else if (arg.startsWith("--pool-size=")) {
+                long poolSize = parseSize(arg.substring("--pool-size=".length()));
+                if (poolSize >= Integer.MAX_VALUE) throw new IllegalArgumentException("--pool-size must be below 2GB");
+                poolSizeKB = (int) (poolSize / 1024);
+            } else if (arg.startsWith("--compressibility=")) {
+                compressibility = ShapedContent.parseCompressibility(arg.substring("--compressibility=".length()));
+            } else if (arg.startsWith("--dedup=")) {
+                String[] d = arg.substring("--dedup=".length()).split(",");
+                dedup = ShapedContent.parseRatio(d[0]);
+                if (d.length > 1) dedupBlockSize = parseBlockSize(d[1]);
+            } else if (arg.startsWith("--csv-schema=")) {
+                csvSchemaSpec = arg.substring("--csv-schema=".length());
+                csvSchema = CsvSchema.parse(csvSchemaSpec);
+            } else if (arg.startsWith("--xlsx-window=")) {
+                xlsxPolicy = xlsxPolicy.withWindow(Integer.parseInt(arg.substring("--xlsx-window=".length())));
+                xlsxPolicyGiven = true;
+            } else if (arg.startsWith("--xlsx-temp=")) {
+                xlsxPolicy = xlsxPolicy.withTempFiles(arg.substring("--xlsx-temp=".length()));
+                xlsxPolicyGiven = true;
+            } else if (arg.startsWith("--xlsx-temp-dir=")) {
+                xlsxPolicy = xlsxPolicy.withTempDir(Paths.get(arg.substring("--xlsx-temp-dir=".length())));
+                xlsxPolicyGiven = true;
+            } else if (arg.startsWith("--xlsx-in-memory=")) {
+                xlsxPolicy = xlsxPolicy.withInMemoryMaxSize(parseSize(arg.substring("--xlsx-in-memory=".length())));
+                xlsxPolicyGiven = true;
+            } else if (arg.startsWith("--report=")) {
+                reportPath = Paths.get(arg.substring("--report=".length()));
+            } else if (arg.startsWith("--shard=")) {
+                shard = Shard.parse(arg.substring("--shard=".length()));
+            } else if (arg.startsWith("--fanout=")) {
+                fanout = Fanout.parse(arg.substring("--fanout=".length()));
+            } else if (arg.startsWith("--archive=")) {
+                archiveSpec = arg.substring("--archive=".length());
+            } else if (arg.equals("--resume")) {
+                resume = true;
+            } else if (arg.equals("--train-cds")) {
+                trainCds = true;
+            } else if (arg.startsWith("--progress=")) {
+                progressMode = ProgressRenderer.Mode.parse(arg.substring("--progress=".length()));
             }
         }
 
-        if (minSizeKB > maxSizeKB) {
-            int tmp = minSizeKB; minSizeKB = maxSizeKB; maxSizeKB = tmp;
+        // A training run for a CDS archive or AOT cache is the usual run with every output in a
+        // temporary folder, which is deleted afterwards; the JVM records the classes it loaded
+        Path trainingDir = null;
+        if (trainCds) {
+            trainingDir = Files.createTempDirectory("bulkgen-train");
+            outputFolder = trainingDir.toString();
+            resume = false;
+            if (archiveSpec != null && archiveSpec.indexOf(':') > 0) {
+                String type = archiveSpec.substring(0, archiveSpec.indexOf(':'));
+                archiveSpec = type + ":" + trainingDir.resolve("training." + type);
+            }
+            if (reportPath != null) reportPath = trainingDir.resolve(reportPath.getFileName());
         }
 
-        Path folder = Paths.get(outputFolder);
-        Files.createDirectories(folder);
+        if (minSize > maxSize) {
+            long tmp = minSize; minSize = maxSize; maxSize = tmp;
+        }
 
-        AtomicInteger completed = new AtomicInteger(0);
-        // Executor for virtual threads
-        Executor executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().factory());
+        // Uniform sizes span --min-size..--max-size; other distributions are only clamped by the
+        // bounds that were given explicitly
+        boolean uniform = sizeDistSpec.trim().equalsIgnoreCase("uniform");
+        long minBytes = uniform || minSizeGiven ? minSize : 0;
+        long maxBytes = uniform || maxSizeGiven ? maxSize : MAX_UNBOUNDED_SIZE;
+        SizeDistribution sizes = SizeDistributions.parse(sizeDistSpec, minBytes, maxBytes);
+
+        // Resolve one engine per format up front so a bad --formats/--engine fails before any work
+        BulkGenerator.Builder builder = BulkGenerator.builder()
+                .formats(formats)
+                .engines(engines)
+                .csvSchema(csvSchema)
+                .xlsxPolicy(xlsxPolicyGiven ? xlsxPolicy : null)
+                .sizeTolerance(sizeTolerance)
+                .totalFiles(totalFiles)
+                .sizes(sizes)
+                .fanout(fanout)
+                .shard(shard)
+                .concurrency(maxInFlight);
+        Collection<FormatGenerator> generators = builder.generators().values();
+        for (FormatGenerator g : generators) {
+            if (maxBytes > LARGE_FILE_SIZE && !g.boundedMemory()) {
+                System.err.println("Warning: engine " + g.format() + ":" + g.engine()
+                        + " builds each file in memory; files of up to " + maxBytes / (1024 * 1024)
+                        + " MB may exhaust the heap (engines of " + g.format() + ": "
+                        + FormatGenerators.load().engines(g.format()) + ")");
+            }
+        }
+        if (dedup > 0) {
+            List<String> unaligned = generators.stream()
+                    .filter(g -> !g.blockAligned())
+                    .map(g -> g.format() + ":" + g.engine())
+                    .toList();
+            if (!unaligned.isEmpty()) {
+                System.err.println("Warning: --dedup makes no duplicate blocks with engines that do not lay"
+                        + " files out in blocks: " + String.join(", ", unaligned));
+            }
+        }
 
-        long start = System.currentTimeMillis();
+        if (archiveSpec != null && resume) {
+            throw new IllegalArgumentException("--resume cannot continue an --archive run");
+        }
+        if (archiveSpec != null && fillMode != FillMode.CONTENT) {
+            throw new IllegalArgumentException("--fill=" + fillMode.name().toLowerCase() + " needs files, not --archive");
+        }
 
-        // ---------------- Distribute totalFiles among formats ----------------
-        int numFormats = formats.size();
-        int baseFilesPerFormat = totalFiles / numFormats;
-        int remainder = totalFiles % numFormats;
-        int formatIndex = 0;
+        Path folder = Paths.get(outputFolder);
+        // An archive run writes nothing but the archive, so it keeps no journal either
+        ArchiveWriter archive = archiveSpec != null ? ArchiveWriter.open(archiveSpec, shard) : null;
+        if (archive == null) Files.createDirectories(folder);
+
+        // Everything that shapes the files' bytes; a journal only resumes a run with the same config
+        StringJoiner engineList = new StringJoiner(",");
+        generators.forEach(g -> engineList.add(g.format() + ":" + g.engine()));
+        String runConfig = "total=" + totalFiles + ";formats=" + engineList + ";size=" + minBytes + ".." + maxBytes
+                + ";size-dist=" + sizeDistSpec + ";tolerance=" + sizeTolerance + ";pool=" + poolSizeKB + "KB;compressibility=" + compressibility
+                + ";dedup=" + dedup + "," + dedupBlockSize + ";csv-schema=" + csvSchemaSpec + ";fanout=" + fanout
+                + ";fill=" + fillMode + ";shard=" + shard;
+
+        // Every shard keeps its own journal and report, so shards can share one output folder
+        Path journalPath = folder.resolve(Journal.FILE_NAME + shard.suffix());
+        if (reportPath != null) reportPath = shard.qualify(reportPath);
+        Journal journal;
+        if (archive != null) {
+            journal = null;
+        } else if (resume && Files.exists(journalPath)) {
+            journal = Journal.resume(journalPath);
+            long journalSeed = Long.parseLong(journal.header().get("seed"));
+            if (!runConfig.equals(journal.header().get("config")) || (seedGiven && seed != journalSeed)) {
+                journal.close();
+                throw new IllegalArgumentException("--resume needs the options of the journaled run: "
+                        + journal.header().get("config") + " (seed " + journalSeed + ")");
+            }
+            seed = journalSeed;
+        } else {
+            if (resume) System.out.println("No journal in " + folder + ", starting from scratch");
+            journal = Journal.create(journalPath, Map.of("seed", Long.toString(seed), "config", runConfig));
+        }
 
-        List<CompletableFuture<Void>> allFutures = new ArrayList<>();
+        // Filler for all files: copies out of one shared random pool, or per-character PRNG draws
+        ContentSource base = poolSizeKB > 0 && fillMode.generatesContent()
+                ? RandomBlockPool.create(poolSizeKB * 1024, seed)
+                : ContentSource.PRNG;
+        ContentSource content = compressibility > 0 || dedup > 0
+                ? new ShapedContent(base, compressibility, dedup, dedupBlockSize, seed)
+                : base;
+
+        // Calibrate size models of structured formats on a short warm-up with the run's content
+        for (FormatGenerator generator : generators) {
+            if (generator instanceof CalibratedFormatGenerator calibrated && fillMode.generatesContent()) {
+                SizeModel model = calibrated.calibrate(content);
+                System.out.printf("Calibrated %s/%s: %.0f bytes + %.1f bytes per unit%n",
+                        generator.format(), generator.engine(), model.fixedBytes(), model.bytesPerUnit());
+            }
+        }
 
-        for (String fmt : formats) {
-            final String format = fmt;
-            int filesForThisFormat = baseFilesPerFormat + (formatIndex < remainder ? 1 : 0);
-            formatIndex++;
+        RunMetrics metrics = new RunMetrics(seed);
+        metrics.setShard(shard);
+        for (FormatGenerator generator : generators) {
+            metrics.add(generator.format(), generator.engine());
+        }
 
-            for (int i = 1; i <= filesForThisFormat; i++) {
-                final int index = i;           // for lambda
-                final int minSize = minSizeKB;
-                final int maxSize = maxSizeKB;
+        // The journal knows formats by their position in the run. Write buffers come from one pool:
+        // one per file in flight, plus the pipeline's queued and in-progress writes
+        Map<String, Integer> formatIds = new HashMap<>();
+        for (FormatGenerator generator : generators) formatIds.put(generator.format(), formatIds.size());
+        Destination destination = archive != null ? archive
+                : new DirectoryDestination(folder, ioMode, fillMode, ioThreads, ioDepth, maxInFlight + ioDepth + ioThreads,
+                        (spec, written, checksum) -> journal.append(formatIds.get(spec.format()), spec.index(), written, checksum));
+        BulkGenerator bulk = builder
+                .seed(seed)
+                .content(content)
+                .destination(destination)
+                .skip(journal == null ? null : (format, index) -> journal.isPublished(formatIds.get(format), index))
+                .onFailure((name, e) -> {
+                    System.err.println("\nError generating file " + name + ": ");
+                    e.printStackTrace(System.err);
+                })
+                .build();
 
-                allFutures.add(runAsync(() ->
-                                createFile(folder, index, format, randomSize(minSize, maxSize)),
-                        completed, totalFiles, executor));
-            }
+        long start = System.currentTimeMillis();
+
+        // This process only generates its shard's slice of every format's indices
+        long shardFiles = bulk.files();
+        if (shard.count() > 1) {
+            System.out.printf("Shard %s: %d of %d files%n", shard, shardFiles, totalFiles);
+            if (!seedGiven) System.out.println("No --seed given: shards generate content from unrelated seeds");
         }
 
-        // Wait for all tasks to complete
-        CompletableFuture.allOf(allFutures.toArray(new CompletableFuture[0])).join();
+        long skipped = 0;
+        for (int f = 0; journal != null && f < generators.size(); f++) skipped += journal.publishedCount(f);
+        if (skipped > 0) System.out.printf("Resuming: %d of %d files already published%n", skipped, shardFiles);
+
+        // Progress is sampled from the metrics counters by one renderer thread, never by the workers
+        ProgressRenderer progress = ProgressRenderer.start(metrics, shardFiles - skipped, progressMode, System.out);
+        // Closed in reverse order, also when the run fails: the destination publishes its last files
+        // to the journal, which then flushes every entry written so far
+        try (journal; progress; destination) {
+            bulk.run(metrics);
+        }
 
         long end = System.currentTimeMillis();
 
@@ -97,18 +333,71 @@ public class FileGeneratorV6 {
         long hours   = (duration / (1000 * 60 * 60));
 
         System.out.printf(
-                "\nGenerated %d files in %dh %dm %ds %dms at %s%n",
-                totalFiles, hours, minutes, seconds, millis, folder
+                "Generated %d files in %dh %dm %ds %dms at %s (seed %d)%n",
+                shardFiles - skipped, hours, minutes, seconds, millis, archive != null ? archive.path() : folder, seed
         );
+        metrics.printSummary(System.out);
+        for (FormatGenerator generator : generators) {
+            if (generator instanceof CalibratedFormatGenerator calibrated && calibrated.misses() > 0) {
+                System.out.printf("%s: %d of %d files outside ±%.1f%% of target size%n", generator.format(),
+                        calibrated.misses(), calibrated.files(), calibrated.tolerance() * 100);
+            }
+        }
+        if (reportPath != null) {
+            metrics.writeReport(reportPath);
+            System.out.println("Report written to " + reportPath);
+        }
+        if (trainingDir != null) {
+            try (Stream<Path> paths = Files.walk(trainingDir)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+            System.out.println("Training run done: start with -XX:ArchiveClassesAtExit=<file>.jsa"
+                    + " (or -XX:AOTCacheOutput=<file>.aot on JDK 25+) to record what it loaded");
+        }
     }
 
 
+    /** {@code merge-reports <merged report> <shard report>...}: one summary over the JSON reports of all shards. */
+    private static void mergeReports(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: merge-reports <merged report> <shard report>...");
+        }
+        List<Path> reports = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) reports.add(Paths.get(args[i]));
+        RunMetrics merged = RunMetrics.merge(reports);
+        System.out.printf("Merged shards %s%n", merged.shard());
+        merged.printSummary(System.out);
+        Path out = Paths.get(args[0]);
+        merged.writeReport(out);
+        System.out.println("Report written to " + out);
+    }
+
+    /** {@code profile <dir> <profile.csv> [--threads=<n>]}: size histogram per extension of an existing tree. */
+    private static void profile(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: profile <directory> <profile.csv> [--threads=<n>]");
+        }
+        int threads = 4 * Runtime.getRuntime().availableProcessors();
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].startsWith("--threads=")) threads = Integer.parseInt(args[i].substring("--threads=".length()));
+        }
+        long start = System.nanoTime();
+        SizeProfile profile = SizeProfile.scan(Paths.get(args[0]), threads);
+        System.out.printf("Profiled %s in %.1fs%n", args[0], (System.nanoTime() - start) / 1e9);
+        profile.printSummary(System.out, 15);
+        Path out = Paths.get(args[1]);
+        profile.write(out);
+        System.out.println("Profile written to " + out + "; replay it with --size-dist=histogram:" + out);
+    }
+
     private static void printUsage() {
         System.out.println("""
         FileGenerator - Generate random files in multiple formats.
 
         Usage:
           java FileGenerator [options]
+          java FileGenerator merge-reports <merged report> <shard report>...
+          java FileGenerator profile <directory> <profile.csv> [--threads=<n>]
 
         Options:
           --output=<folder>       Output folder where files will be saved (default: output)
@@ -116,8 +405,62 @@ public class FileGeneratorV6 {
           --formats=<list>        Comma-separated list of formats to generate.
                                   Supported: txt,csv,xlsx,docx,pdf
                                   Default: txt,csv,xlsx,docx,pdf
-          --min-size=<size>       Minimum size of each file in KB or MB (default: 50KB)
-          --max-size=<size>       Maximum size of each file in KB or MB (default: 500KB)
+          --min-size=<size>       Minimum size of each file in KB, MB, GB or TB (default: 50KB)
+          --max-size=<size>       Maximum size of each file in KB, MB, GB or TB (default: 500KB)
+          --size-dist=<dist>      uniform, lognormal(mu,sigma), pareto(alpha[,scale]) or histogram:<file>;
+                                  mu is ln(bytes) or a median size such as 16KB, scale the smallest
+                                  size (default: --min-size or 1KB). Non-uniform sizes are only clamped to
+                                  --min-size/--max-size when given (else at 1TB); histogram replays a profile
+                                  written by the profile command (default: uniform)
+          --engine=<list>         Engine per format, e.g. pdf:pdfbox,txt:writer, or a single
+                                  engine name used wherever a format offers it
+                                  (default: highest priority engine of each format)
+          --io=<mode>             How files are written: stream writes from the generating thread;
+                                  mmap sizes exact-size (txt,csv) files of 1MB and more up front
+                                  and fills them in place; pipeline hands full buffers to separate
+                                  I/O threads while generation goes on (default: stream)
+          --io-threads=<n>        I/O threads of --io=pipeline (default: 4)
+          --io-depth=<n>          Buffers queued between generation and I/O threads (default: 256)
+          --fill=<mode>           content, sparse (set the length only), zero (write zeros) or
+                                  preallocate (zero-fill each file up front, then write content into it);
+                                  sparse and zero skip content generation (default: content)
+          --max-in-flight=<n>     Maximum number of files being generated at once (default: 1024)
+          --size-tolerance=<pct>  Accepted size error of xlsx/docx/pdf files, e.g. 2% (default: 2%)
+          --pool-size=<size>      Size of the shared random block pool content is copied from;
+                                  0 draws every character from the PRNG (default: 64MB)
+          --compressibility=<r>   Fraction of bytes a compressor should save, e.g. 0.5, 50% or 2:1
+                                  (text content cannot go below ~25%; default: natural)
+          --dedup=<r>[,<block>]   Fraction of duplicate blocks, e.g. 0.3,4KB (block default: 4KB);
+                                  txt:raw and csv:raw lay files out in blocks, other engines get none
+          --csv-schema=<cols>     Typed CSV columns, e.g. id:long,name:str(8..32),amount:decimal(12,2),
+                                  ts:timestamp,status:enum(A|B|C); also writes a header row.
+                                  Types: int, long, decimal(p,s), double, str, timestamp, date, enum;
+                                  at least one str column is needed to pad files to exact sizes
+          --xlsx-window=<rows>    Rows per sheet xlsx keeps in memory before flushing older ones
+                                  to a temp file (default: 100)
+          --xlsx-temp=<mode>      gzip or plain temp files of xlsx sheet data (default: gzip)
+          --xlsx-temp-dir=<dir>   Directory of those temp files (default: poifiles in java.io.tmpdir)
+          --xlsx-in-memory=<size> xlsx files up to this size keep sheet data in memory and write no
+                                  temp files; 0 always uses temp files (default: 256KB)
+          --report=<file>         Write per-format files/s, MB/s, latency percentiles, size error and
+                                  failures to <file>; CSV if it ends in .csv, JSON otherwise
+          --progress=<mode>       auto, bar, log or off; auto draws a bar on a terminal and
+                                  prints a log line every 5s otherwise (default: auto)
+          --fanout=<l>x<w>[:mode] Spread files over l levels of w subdirectories each, e.g. 2x256;
+                                  mode hash scatters indices evenly, range keeps consecutive
+                                  indices together (default: all files in the output folder)
+          --archive=<type>:<file> Write all files as entries of one archive instead of the output folder;
+                                  type is zip, tar, tar.gz or tar.zst, e.g. tar.zst:corpus.tar.zst
+          --shard=<k>/<n>         Generate only the k-th of n disjoint slices of every format's files
+                                  (k from 1); run one process per shard with the same options and
+                                  seed. Journal and report names get a .k-of-n suffix; combine the
+                                  JSON reports with merge-reports
+          --train-cds             Training run for a CDS archive or AOT cache: the run the other options
+                                  describe, written to a temporary folder that is deleted afterwards
+          --resume                Continue an interrupted run in the same output folder: files listed in
+                                  its journal are skipped, the rest are generated with the journaled seed
+          --seed=<long>           Seed for all random content and sizes; the same seed gives
+                                  the same files (default: random, printed at the end)
           --help                  Show this help message and exit
 
         Example:
@@ -127,150 +470,33 @@ public class FileGeneratorV6 {
 
 
     // ---------------- Helper Methods ----------------
-    private static int parseSize(String size) {
+    /** {@code 500KB}, {@code 4MB}, {@code 50GB} or {@code 1TB} in bytes; a bare number is KB. */
+    private static long parseSize(String size) {
         size = size.toUpperCase().trim();
-        if (size.endsWith("KB")) return Integer.parseInt(size.replace("KB","").trim());
-        if (size.endsWith("MB")) return Integer.parseInt(size.replace("MB","").trim()) * 1024;
-        return Integer.parseInt(size); // default KB
-    }
-
-    private static int randomSize(int minKB, int maxKB) {
-        return (minKB + random.nextInt(maxKB - minKB + 1)) * 1024;
-    }
-
-    private static Path filePath(Path folder, int index, String ext) {
-        return folder.resolve("file_" + index + "." + ext);
-    }
-
-    private static String randomString(int length) {
-        var rnd = ThreadLocalRandom.current();
-        var sb = new StringBuilder(length);
-        for (int i = 0; i < length; i++) sb.append(CHARS[rnd.nextInt(CHARS.length)]);
-        return sb.toString();
-    }
-
-    private static CompletableFuture<Void> runAsync(Task task, AtomicInteger completed, int totalTasks, Executor executor) {
-        return CompletableFuture.runAsync(() -> {
-            try {
-                task.run();
-            } catch (Exception e) {
-                System.err.println("\nError generating file: ");
-                e.printStackTrace(System.err);
-            } finally {
-                int done = completed.incrementAndGet();
-                printProgressBar(done, totalTasks);
-            }
-        }, executor);
-    }
-
-    @FunctionalInterface
-    interface Task { void run() throws Exception; }
-
-    private static void printProgressBar(int done, int totalTasks) {
-        int width = 50;
-        int filled = (done * width) / totalTasks;
-        String bar = "=".repeat(filled) + " ".repeat(width - filled);
-        System.out.print("\r[" + bar + "] " + (100 * done / totalTasks) + "% (" + done + "/" + totalTasks + ")");
-    }
-
-    private static void createFile(Path folder, int index, String fmt, int size) throws IOException {
-        switch(fmt.toLowerCase()) {
-            case "txt" -> createTextFile(filePath(folder, index, "txt"), size);
-            case "csv" -> createCsvFile(filePath(folder, index, "csv"), size);
-            case "xlsx" -> createXlsxFile(filePath(folder, index, "xlsx"), size);
-            case "docx" -> createDocxFile(filePath(folder, index, "docx"), size);
-            case "pdf" -> createPdfFile(filePath(folder, index, "pdf"), size);
-            default -> throw new IllegalArgumentException("Unsupported format: " + fmt);
-        }
+        long unit = size.endsWith("TB") ? 1L << 40
+                : size.endsWith("GB") ? 1L << 30
+                : size.endsWith("MB") ? 1L << 20
+                : size.endsWith("KB") ? 1L << 10
+                : 0;
+        if (unit == 0) return Math.multiplyExact(Long.parseLong(size), 1024L); // default KB
+        return Math.multiplyExact(Long.parseLong(size.substring(0, size.length() - 2).trim()), unit);
     }
 
-    // ---------------- File Generators ----------------
-    public static void createTextFile(Path path, int targetSize) throws IOException {
-        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
-            int written = 0;
-            while (written < targetSize) {
-                String line = randomString(100) + "\n";
-                writer.write(line);
-                written += line.getBytes().length;
-            }
-        }
-    }
-
-    public static void createCsvFile(Path path, int targetSize) throws IOException {
-        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
-            int written = 0;
-            while (written < targetSize) {
-                String line = random.nextInt(1000) + "," + randomString(10) + "," + random.nextDouble() + "\n";
-                writer.write(line);
-                written += line.getBytes().length;
-            }
+    private static int parseBlockSize(String value) {
+        value = value.toUpperCase().trim();
+        int size = value.endsWith("KB")
+                ? Integer.parseInt(value.replace("KB", "").trim()) * 1024
+                : Integer.parseInt(value);
+        if (size < 512 || size > ByteSink.DEFAULT_BUFFER_SIZE) {
+            throw new IllegalArgumentException("Dedup block size must be between 512 and 65536 bytes: " + value);
         }
+        return size;
     }
 
-    public static void createXlsxFile(Path path, int targetSize) throws IOException {
-        try (SXSSFWorkbook wb = new SXSSFWorkbook(100)) {
-            Sheet sheet = wb.createSheet("Sheet1");
-            int rowNum = 0;
-            int maxRows = Math.max(1, targetSize / 1000);
-            while (rowNum < maxRows) {
-                Row row = sheet.createRow(rowNum++);
-                for (int i = 0; i < 10; i++) row.createCell(i).setCellValue(randomString(20));
-            }
-            try (FileOutputStream fos = new FileOutputStream(path.toFile())) {
-                wb.write(fos);
-            }
-        }
-    }
-
-    public static void createDocxFile(Path path, int targetSize) throws IOException {
-        try (XWPFDocument doc = new XWPFDocument();
-             FileOutputStream fos = new FileOutputStream(path.toFile())) {
-
-            int written = 0;
-            while (written < targetSize) {
-                XWPFParagraph p = doc.createParagraph();
-                XWPFRun run = p.createRun();
-                String text = randomString(200);
-                run.setText(text);
-                written += text.getBytes().length;
-            }
-            doc.write(fos);
-        }
-    }
-
-    public static void createPdfFile(Path path, int targetSize) throws IOException {
-        try (PDDocument doc = new PDDocument()) {
-            PDPage page = new PDPage(PDRectangle.LETTER);
-            doc.addPage(page);
-
-            float y = 700;
-            int written = 0;
-            PDPageContentStream cs = new PDPageContentStream(doc, page);
-
-            while (written < targetSize) {
-                // Create new page if needed
-                if (y < 50) {
-                    cs.close();                  // close old stream
-                    page = new PDPage(PDRectangle.LETTER);
-                    doc.addPage(page);
-                    cs = new PDPageContentStream(doc, page); // open new stream
-                    y = 700;
-                }
-
-                String text = randomString(200);
-                cs.beginText();
-                cs.setFont(PDType1Font.HELVETICA, 12);
-                cs.newLineAtOffset(50, y);
-                cs.showText(text);
-                cs.endText();
-
-                y -= 15;
-                written += text.getBytes().length;
-            }
-
-            cs.close();
-            doc.save(path.toFile());
-        }
+    private static double parseTolerance(String value) {
+        value = value.trim();
+        if (value.endsWith("%")) return Double.parseDouble(value.substring(0, value.length() - 1)) / 100;
+        return Double.parseDouble(value);
     }
 
 }
@@ -0,0 +1,337 @@
+package org.file.generator;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import org.apache.commons.compress.archivers.ArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Streams generated files straight into one archive ({@code --archive=<type>:<path>}) instead of
+ * the output folder.
+ * <p>
+ * Workers generate each entry into a heap buffer with {@link #write}, so POI and PDFBox output is
+ * captured without temp files, and queue it; one writer thread appends entries in queue order.
+ * Every buffer counts against a budget of {@value #MEMORY_BUDGET} bytes from before it is allocated
+ * until the writer has appended it, so a slow disk holds back the workers instead of filling the
+ * heap, however many files are in flight. Entries with a target above {@value #SPILL_SIZE} bytes are
+ * generated into a temp file next to the archive instead and copied in by the writer; at most
+ * {@value #MAX_SPILLED} of those wait at a time. ZIP entries are deflated by the worker that made them and copied
+ * into the archive raw, so compression runs in parallel; {@code tar.gz} compresses on the writer
+ * thread and {@code tar.zst} on zstd's own worker threads. Entry times are pinned to
+ * {@link OoxmlSupport#FIXED_TIME} so seeded runs give identical archives.
+ */
+public final class ArchiveWriter implements Destination {
+
+    public enum Type {
+        ZIP("zip"), TAR("tar"), TAR_GZ("tar.gz"), TAR_ZST("tar.zst");
+
+        private final String label;
+
+        Type(String label) {
+            this.label = label;
+        }
+
+        public static Type parse(String value) {
+            String v = value.trim().toLowerCase(Locale.ROOT);
+            return Arrays.stream(values()).filter(t -> t.label.equals(v)).findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown archive type '" + value
+                            + "' (supported: zip, tar, tar.gz, tar.zst)"));
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private static final long POLL_MILLIS = 100;
+    private static final int SPILL_SIZE = 4 * 1024 * 1024;
+    /** Heap bytes of entries being generated or waiting for the writer, across all workers. */
+    private static final int MEMORY_BUDGET = 256 * 1024 * 1024;
+    /** Least an entry counts against the budget, so empty entries cannot pile up without bound. */
+    private static final int MIN_CHARGE = 1024;
+    private static final int MAX_SPILLED = 16;
+
+    /**
+     * A finished entry; {@code data} is deflated with {@code crc} and {@code size} of the original
+     * for ZIP. Spilled entries have no {@code data} but the temp file {@code spill} of {@code size}
+     * bytes. {@code charge} is what the entry holds of the memory budget.
+     */
+    private record Entry(String name, byte[] data, int length, long size, long crc, Path spill, int charge) {
+
+        Entry withCharge(int charge) {
+            return new Entry(name, data, length, size, crc, spill, charge);
+        }
+    }
+
+    private final Type type;
+    private final Path path;
+    private final ArchiveOutputStream out;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final Semaphore memory = new Semaphore(MEMORY_BUDGET);
+    private final Semaphore spilled = new Semaphore(MAX_SPILLED);
+    private final Thread writer;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    private ArchiveWriter(Type type, Path path, ArchiveOutputStream out) {
+        this.type = type;
+        this.path = path;
+        this.out = out;
+        this.writer = Thread.ofPlatform().daemon().name("archive").unstarted(this::writeLoop);
+    }
+
+    /**
+     * Parses {@code <type>:<path>}, e.g. {@code tar.zst:/data/corpus.tar.zst}, and opens the
+     * archive; each shard of a sharded run gets its own (see {@link Shard#qualify}).
+     */
+    public static ArchiveWriter open(String spec, Shard shard) throws IOException {
+        int colon = spec.indexOf(':');
+        if (colon < 0) throw new IllegalArgumentException("Archive must look like <type>:<path>, e.g. zip:out.zip: " + spec);
+        return open(Type.parse(spec.substring(0, colon)), shard.qualify(Path.of(spec.substring(colon + 1).trim())));
+    }
+
+    public static ArchiveWriter open(Type type, Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        ArchiveOutputStream out;
+        if (type == Type.ZIP) {
+            out = new ZipArchiveOutputStream(path);
+        } else {
+            OutputStream file = new BufferedOutputStream(Files.newOutputStream(path), ByteSink.DEFAULT_BUFFER_SIZE);
+            try {
+                OutputStream compressed = switch (type) {
+                    case TAR_GZ -> new GzipCompressorOutputStream(file);
+                    case TAR_ZST -> new ZstdOutputStream(file).setWorkers(Runtime.getRuntime().availableProcessors());
+                    default -> file;
+                };
+                TarArchiveOutputStream tar = new TarArchiveOutputStream(compressed);
+                tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+                tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+                out = tar;
+            } catch (IOException | RuntimeException e) {
+                file.close();
+                throw e;
+            }
+        }
+        ArchiveWriter archive = new ArchiveWriter(type, path, out);
+        archive.writer.start();
+        return archive;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public Type type() {
+        return type;
+    }
+
+    /**
+     * Generates one file with {@code generator} into memory and queues it as entry {@code name};
+     * blocks until the memory budget has room for it.
+     *
+     * @return the entry's uncompressed size
+     */
+    @Override
+    public long write(String name, FormatGenerator generator, FileSpec spec) throws IOException {
+        if (spec.targetSize() > SPILL_SIZE) return spill(name, generator, spec);
+        // Exact-size engines get a buffer of the final size and never grow it; the others get
+        // headroom for their size tolerance
+        long target = spec.targetSize();
+        int initial = Math.max(MIN_CHARGE, (int) (generator.exactSize() ? target : target + target / 8));
+        int charge = acquire(memory, initial, name);
+        long written;
+        Entry entry;
+        try {
+            ByteSink.CollectingSink sink = ByteSink.collecting(initial);
+            try (sink) {
+                written = generator.write(spec, sink);
+            }
+            int length = (int) sink.position();
+            entry = type == Type.ZIP
+                    ? deflate(name, sink.array(), length)
+                    : new Entry(name, sink.array(), length, length, 0, null, 0);
+            int held = Math.max(MIN_CHARGE, entry.data().length);
+            if (held <= charge) {
+                memory.release(charge - held);
+                charge = held;
+            } else {
+                // The buffer grew: wait for the whole amount anew, as waiting while holding part of
+                // the budget could deadlock the workers against each other
+                memory.release(charge);
+                charge = 0;
+                charge = acquire(memory, held, name);
+            }
+        } catch (IOException | RuntimeException e) {
+            memory.release(charge);
+            throw e;
+        }
+        try {
+            enqueue(entry.withCharge(charge));
+        } catch (IOException e) {
+            memory.release(charge);
+            throw e;
+        }
+        return written;
+    }
+
+    /** Takes {@code permits}, or all of the memory budget for a larger entry; gives up if the writer failed. */
+    private int acquire(Semaphore semaphore, int permits, String name) throws IOException {
+        int n = Math.min(permits, MEMORY_BUDGET);
+        try {
+            do {
+                if (failure != null) throw failure;
+            } while (!semaphore.tryAcquire(n, POLL_MILLIS, TimeUnit.MILLISECONDS));
+            return n;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to queue " + name);
+        }
+    }
+
+    private long spill(String name, FormatGenerator generator, FileSpec spec) throws IOException {
+        acquire(spilled, 1, name);
+        Path part;
+        try {
+            part = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName() + ".", ".part");
+        } catch (IOException e) {
+            spilled.release();
+            throw e;
+        }
+        try {
+            long written;
+            try (ByteSink sink = ByteSink.of(FileChannel.open(part, StandardOpenOption.WRITE))) {
+                written = generator.write(spec, sink);
+            }
+            enqueue(new Entry(name, null, 0, Files.size(part), 0, part, 0));
+            return written;
+        } catch (IOException | RuntimeException e) {
+            spilled.release();
+            Files.deleteIfExists(part);
+            throw e;
+        }
+    }
+
+    private static Entry deflate(String name, byte[] data, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            byte[] compressed = new byte[Math.max(64, length / 2)];
+            int n = 0;
+            while (!deflater.finished()) {
+                if (n == compressed.length) compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                n += deflater.deflate(compressed, n, compressed.length - n);
+            }
+            return new Entry(name, compressed, n, length, crc.getValue(), null, 0);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void enqueue(Entry entry) throws IOException {
+        if (failure != null) throw failure;
+        queue.add(entry);
+    }
+
+    private void writeLoop() {
+        try {
+            while (!closed || !queue.isEmpty()) {
+                Entry entry = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (entry == null) continue;
+                if (entry.spill() != null) {
+                    copySpilled(entry);
+                } else if (out instanceof ZipArchiveOutputStream zip) {
+                    ZipArchiveEntry e = new ZipArchiveEntry(entry.name());
+                    e.setMethod(ZipArchiveEntry.DEFLATED);
+                    e.setSize(entry.size());
+                    e.setCompressedSize(entry.length());
+                    e.setCrc(entry.crc());
+                    e.setTime(OoxmlSupport.FIXED_TIME);
+                    zip.addRawArchiveEntry(e, new ByteArrayInputStream(entry.data(), 0, entry.length()));
+                } else {
+                    TarArchiveOutputStream tar = (TarArchiveOutputStream) out;
+                    TarArchiveEntry e = new TarArchiveEntry(entry.name());
+                    e.setSize(entry.length());
+                    e.setModTime(new Date(OoxmlSupport.FIXED_TIME));
+                    tar.putArchiveEntry(e);
+                    tar.write(entry.data(), 0, entry.length());
+                    tar.closeArchiveEntry();
+                }
+                memory.release(entry.charge());
+            }
+            out.finish();
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            failure = new InterruptedIOException("Archive writer interrupted");
+        }
+    }
+
+    /** Deflates a spilled ZIP entry on the writer thread; the seekable archive gets its CRC afterwards. */
+    private void copySpilled(Entry entry) throws IOException {
+        try {
+            if (out instanceof ZipArchiveOutputStream) {
+                ZipArchiveEntry e = new ZipArchiveEntry(entry.name());
+                e.setMethod(ZipArchiveEntry.DEFLATED);
+                e.setSize(entry.size());
+                e.setTime(OoxmlSupport.FIXED_TIME);
+                out.putArchiveEntry(e);
+            } else {
+                TarArchiveEntry e = new TarArchiveEntry(entry.name());
+                e.setSize(entry.size());
+                e.setModTime(new Date(OoxmlSupport.FIXED_TIME));
+                out.putArchiveEntry(e);
+            }
+            Files.copy(entry.spill(), out);
+            out.closeArchiveEntry();
+        } finally {
+            Files.deleteIfExists(entry.spill());
+            spilled.release();
+        }
+    }
+
+    /** Writes out every queued entry, finishes the archive and closes it. */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing the archive");
+        } finally {
+            out.close();
+            // Entries left behind by a failed writer
+            for (Entry e; (e = queue.poll()) != null; ) {
+                if (e.spill() != null) Files.deleteIfExists(e.spill());
+            }
+        }
+        if (failure != null) throw failure;
+    }
+}
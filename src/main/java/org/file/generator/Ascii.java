@@ -0,0 +1,79 @@
+package org.file.generator;
+
+import java.nio.ByteBuffer;
+import java.util.random.RandomGenerator;
+
+/**
+ * Allocation-free ASCII encoders that write straight into a {@link ByteBuffer}.
+ * Callers are responsible for reserving enough room first.
+ */
+public final class Ascii {
+
+    static final byte[] ALNUM = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789"
+            .getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+
+    /** Characters drawn from a single {@code nextLong()} by {@link #putAlnum}. */
+    private static final int CHARS_PER_LONG = 8;
+
+    private static final long[] POW10 = new long[19];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10;
+    }
+
+    private Ascii() {
+    }
+
+    /**
+     * Puts {@code n} random {@code [A-Za-z0-9]} characters. Each 64-bit draw is consumed as a
+     * fixed-point fraction, multiplying out one character index at a time.
+     */
+    public static void putAlnum(ByteBuffer buf, int n, RandomGenerator rnd) {
+        while (n > 0) {
+            long bits = rnd.nextLong();
+            int k = Math.min(n, CHARS_PER_LONG);
+            for (int i = 0; i < k; i++) {
+                buf.put(ALNUM[(int) Math.unsignedMultiplyHigh(bits, ALNUM.length)]);
+                bits *= ALNUM.length;
+            }
+            n -= k;
+        }
+    }
+
+    /** Puts ASCII (or Latin-1) characters one byte each. */
+    public static void put(ByteBuffer buf, CharSequence s) {
+        put(buf, s, 0, s.length());
+    }
+
+    public static void put(ByteBuffer buf, CharSequence s, int off, int len) {
+        for (int i = off; i < off + len; i++) buf.put((byte) s.charAt(i));
+    }
+
+    /** {@code 10^n} for {@code 0 <= n <= 18}. */
+    public static long pow10(int n) {
+        return POW10[n];
+    }
+
+    /** Number of decimal digits of a non-negative value. */
+    public static int digits(long value) {
+        int d = 1;
+        while (d < POW10.length && value >= POW10[d]) d++;
+        return d;
+    }
+
+    /** Puts a non-negative value in decimal. */
+    public static void putLong(ByteBuffer buf, long value) {
+        putLong(buf, value, digits(value));
+    }
+
+    /** Puts a non-negative value left-padded with zeros to exactly {@code width} digits. */
+    public static void putLong(ByteBuffer buf, long value, int width) {
+        int end = buf.position() + width;
+        for (int p = end - 1; p >= buf.position(); p--) {
+            buf.put(p, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buf.position(end);
+    }
+}
@@ -0,0 +1,49 @@
+package org.file.generator;
+
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bounded pool of equally sized direct buffers shared by all sinks of a run, so writing a file
+ * allocates no buffer of its own. Buffers are allocated on first demand up to the limit; beyond it
+ * {@link #acquire()} waits for one to be released. Thread-safe.
+ */
+public final class BufferPool {
+
+    private final int bufferSize;
+    private final BlockingQueue<ByteBuffer> free;
+    private final Semaphore unallocated;
+
+    public BufferPool(int bufferSize, int maxBuffers) {
+        this.bufferSize = bufferSize;
+        this.free = new ArrayBlockingQueue<>(maxBuffers);
+        this.unallocated = new Semaphore(maxBuffers);
+    }
+
+    /** A cleared buffer; blocks while all {@code maxBuffers} are in use. */
+    public ByteBuffer acquire() throws InterruptedIOException {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            if (unallocated.tryAcquire()) return ByteBuffer.allocateDirect(bufferSize);
+            try {
+                buffer = free.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a buffer");
+            }
+        }
+        return buffer.clear();
+    }
+
+    /** Returns a buffer from {@link #acquire()}; it must not be used afterwards. */
+    public void release(ByteBuffer buffer) {
+        free.offer(buffer);
+    }
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+}
@@ -0,0 +1,386 @@
+package org.file.generator;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.random.RandomGenerator;
+
+/**
+ * Generates a set of files in-process, e.g. test fixtures, without forking a JVM per set:
+ * <pre>{@code
+ * MemoryDestination files = Destinations.memory();
+ * BulkGenerator.builder()
+ *         .formats("txt", "csv").totalFiles(200).sizes(16 * 1024, 64 * 1024).seed(42)
+ *         .destination(files)
+ *         .build()
+ *         .run();
+ * }</pre>
+ * A generator's settings are immutable and every {@link #run} generates the same files again, from
+ * any thread. Its engine instances are shared by all runs, though: calibrated size models are
+ * fitted once and reused, and engine counters such as {@link FormatGenerator#tempBytes()} add up
+ * across runs, so the temp bytes reported by runs that overlap in time include each other's.
+ * Each format gets an equal share of {@link Builder#totalFiles}, as indices {@code 1..n}; file
+ * {@code i} draws its size and content from {@link Seeds#forFile}, so a seed reproduces the files
+ * byte for byte. Files are generated on virtual threads, at most {@link Builder#concurrency} at a
+ * time, so tasks are created lazily and heap use does not grow with the file count.
+ */
+public final class BulkGenerator {
+
+    public static final int DEFAULT_CONCURRENCY = 1024;
+
+    /** Files a run leaves out, e.g. those a resumed run already has. */
+    @FunctionalInterface
+    public interface Skip {
+        boolean skip(String format, long index);
+    }
+
+    private final List<FormatGenerator> generators;
+    private final long totalFiles;
+    private final SizeDistribution sizes;
+    private final long seed;
+    private final ContentSource content;
+    private final int concurrency;
+    private final Fanout layout;
+    private final Shard shard;
+    private final Destination destination;
+    private final Skip skip;
+    private final BiConsumer<String, Exception> onFailure;
+
+    private BulkGenerator(Builder b) {
+        this.generators = List.copyOf(b.generators().values());
+        this.totalFiles = b.totalFiles;
+        this.sizes = b.sizes;
+        this.seed = b.seed;
+        this.content = b.content;
+        this.concurrency = b.concurrency;
+        this.shard = b.shard;
+        this.destination = Objects.requireNonNull(b.destination, "destination");
+        this.skip = b.skip;
+        this.onFailure = b.onFailure;
+        // Directories are shared by the same index of every format, so size ranges by the largest format
+        this.layout = b.fanout.forFiles(filesOf(0));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** Engines of the run, one per format in run order. */
+    public List<FormatGenerator> generators() {
+        return generators;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    public Fanout layout() {
+        return layout;
+    }
+
+    /** Files of format number {@code format} across all shards. */
+    public long filesOf(int format) {
+        int n = generators.size();
+        return totalFiles / n + (format < totalFiles % n ? 1 : 0);
+    }
+
+    /** Files one run generates: this shard's slice of every format, skipped files included. */
+    public long files() {
+        long files = 0;
+        for (int f = 0; f < generators.size(); f++) {
+            files += shard.last(filesOf(f)) - shard.first(filesOf(f)) + 1;
+        }
+        return files;
+    }
+
+    /** Name of file {@code index} of {@code format} within the destination, e.g. {@code 3f/a2/file_17.txt}. */
+    public String name(String format, long index) {
+        return layout.prefix(index) + "file_" + index + "." + format;
+    }
+
+    /** Generates every file into fresh metrics. */
+    public RunMetrics run() throws IOException {
+        return run(new RunMetrics(seed));
+    }
+
+    /**
+     * Generates every file, recording into {@code metrics}, and returns once all of them are
+     * done. Without {@link Builder#onFailure} the first failed file is rethrown at the end.
+     */
+    public RunMetrics run(RunMetrics metrics) throws IOException {
+        metrics.setShard(shard);
+        List<FormatMetrics> formatMetrics = new ArrayList<>();
+        long[] tempBytes = new long[generators.size()];
+        for (int f = 0; f < generators.size(); f++) {
+            FormatGenerator generator = generators.get(f);
+            formatMetrics.add(metrics.add(generator.format(), generator.engine()));
+            tempBytes[f] = generator.tempBytes();
+        }
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        long startNanos = System.nanoTime();
+
+        Semaphore window = new Semaphore(concurrency);
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().factory())) {
+            for (int f = 0; f < generators.size(); f++) {
+                FormatGenerator generator = generators.get(f);
+                FormatMetrics fm = formatMetrics.get(f);
+                SizeDistribution formatSizes = sizes.forFormat(generator.format());
+                long files = filesOf(f);
+                for (long i = shard.first(files); i <= shard.last(files); i++) {
+                    if (skip != null && skip.skip(generator.format(), i)) continue;
+                    final long index = i;
+                    window.acquire();
+                    try {
+                        executor.execute(() -> {
+                            try {
+                                generate(generator, index, formatSizes, fm);
+                            } catch (Exception e) {
+                                if (onFailure != null) onFailure.accept(name(generator.format(), index), e);
+                                else if (!failure.compareAndSet(null, e)) failure.get().addSuppressed(e);
+                            } finally {
+                                window.release();
+                            }
+                        });
+                    } catch (RuntimeException e) {
+                        window.release();
+                        throw e;
+                    }
+                }
+            }
+            // Every permit comes back once the last file is done
+            window.acquire(concurrency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while generating files");
+        }
+
+        metrics.setWallNanos(System.nanoTime() - startNanos);
+        // Engine counters span its lifetime; a run gets what grew while it ran
+        for (int f = 0; f < generators.size(); f++) {
+            formatMetrics.get(f).addTempBytes(generators.get(f).tempBytes() - tempBytes[f]);
+        }
+        metrics.setLayout(layout.toString(),
+                destination instanceof DirectoryDestination dir ? dir.directoriesCreated() : 0);
+        Exception e = failure.get();
+        if (e instanceof IOException io) throw io;
+        if (e instanceof RuntimeException re) throw re;
+        if (e != null) throw new IOException(e);
+        return metrics;
+    }
+
+    private void generate(FormatGenerator generator, long index, SizeDistribution formatSizes,
+                          FormatMetrics metrics) throws IOException {
+        RandomGenerator rnd = Seeds.forFile(seed, generator.format(), index);
+        long size = formatSizes.sample(rnd);
+        FileGeneratedEvent event = new FileGeneratedEvent();
+        event.begin();
+        long startNanos = System.nanoTime();
+        long written = 0;
+        boolean ok = false;
+        try {
+            written = destination.write(name(generator.format(), index), generator,
+                    new FileSpec(generator.format(), index, size, rnd, content));
+            ok = true;
+        } finally {
+            long endNanos = System.nanoTime();
+            if (ok) metrics.completed(startNanos, endNanos, size, written);
+            else metrics.failed(startNanos, endNanos);
+            event.end();
+            if (event.shouldCommit()) {
+                event.format = generator.format();
+                event.engine = generator.engine();
+                event.index = index;
+                event.targetSize = size;
+                event.bytes = written;
+                event.failed = !ok;
+                event.commit();
+            }
+        }
+    }
+
+    /** Collects a run's settings; not thread-safe, unlike what it builds. */
+    public static final class Builder {
+        private Collection<String> formats = List.of("txt", "csv", "xlsx", "docx", "pdf");
+        private Map<String, String> engines = Map.of();
+        private final List<FormatGenerator> custom = new ArrayList<>();
+        private Map<String, FormatGenerator> resolved;
+        private CsvSchema csvSchema;
+        private SxssfPolicy xlsxPolicy;
+        private double sizeTolerance = -1;
+        private long totalFiles = 100;
+        private SizeDistribution sizes = SizeDistributions.uniform(50 * 1024, 500 * 1024);
+        private long seed = Seeds.randomSeed();
+        private ContentSource content = ContentSource.PRNG;
+        private int concurrency = DEFAULT_CONCURRENCY;
+        private Fanout fanout = Fanout.FLAT;
+        private Shard shard = Shard.ALL;
+        private Destination destination;
+        private Skip skip;
+        private BiConsumer<String, Exception> onFailure;
+
+        private Builder() {
+        }
+
+        /** Formats to generate, e.g. {@code txt}, each with its highest priority engine unless {@link #engines} picks one. */
+        public Builder formats(Collection<String> formats) {
+            this.formats = List.copyOf(formats);
+            this.resolved = null;
+            return this;
+        }
+
+        public Builder formats(String... formats) {
+            return formats(List.of(formats));
+        }
+
+        /** Engine per format as parsed by {@link FormatGenerators#parseEngines}. */
+        public Builder engines(Map<String, String> engines) {
+            this.engines = Map.copyOf(engines);
+            this.resolved = null;
+            return this;
+        }
+
+        /** Adds an engine instance of one's own; it replaces the registered engine of its format. */
+        public Builder generator(FormatGenerator generator) {
+            this.custom.add(generator);
+            this.resolved = null;
+            return this;
+        }
+
+        /** Column layout of {@code csv}, which needs the {@code raw} engine. */
+        public Builder csvSchema(CsvSchema schema) {
+            this.csvSchema = schema;
+            this.resolved = null;
+            return this;
+        }
+
+        /** Where {@code xlsx} buffers rows (default: {@link SxssfPolicy#DEFAULT}); needs the {@code poi} engine. */
+        public Builder xlsxPolicy(SxssfPolicy policy) {
+            this.xlsxPolicy = policy;
+            this.resolved = null;
+            return this;
+        }
+
+        /** Relative size error accepted by calibrated engines, e.g. {@code 0.02}. */
+        public Builder sizeTolerance(double tolerance) {
+            this.sizeTolerance = tolerance;
+            this.resolved = null;
+            return this;
+        }
+
+        /** Files over all formats (default: 100). */
+        public Builder totalFiles(long totalFiles) {
+            if (totalFiles < 0) throw new IllegalArgumentException("Total files must not be negative: " + totalFiles);
+            this.totalFiles = totalFiles;
+            return this;
+        }
+
+        /** Sizes in whole KB between {@code min} and {@code max} bytes, equally likely (default: 50KB..500KB). */
+        public Builder sizes(long min, long max) {
+            return sizes(SizeDistributions.uniform(Math.min(min, max), Math.max(min, max)));
+        }
+
+        public Builder sizes(SizeDistribution sizes) {
+            this.sizes = Objects.requireNonNull(sizes);
+            return this;
+        }
+
+        /** Seed of all sizes and content (default: a random one, see {@link BulkGenerator#seed()}). */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /** Filler of the files' text (default: {@link ContentSource#PRNG}). */
+        public Builder content(ContentSource content) {
+            this.content = Objects.requireNonNull(content);
+            return this;
+        }
+
+        /** Files in flight at a time (default: {@value BulkGenerator#DEFAULT_CONCURRENCY}). */
+        public Builder concurrency(int concurrency) {
+            if (concurrency < 1) throw new IllegalArgumentException("Concurrency must be at least 1: " + concurrency);
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        public Builder fanout(Fanout fanout) {
+            this.fanout = Objects.requireNonNull(fanout);
+            return this;
+        }
+
+        public Builder shard(Shard shard) {
+            this.shard = Objects.requireNonNull(shard);
+            return this;
+        }
+
+        /** Where files go; required. */
+        public Builder destination(Destination destination) {
+            this.destination = destination;
+            return this;
+        }
+
+        public Builder skip(Skip skip) {
+            this.skip = skip;
+            return this;
+        }
+
+        /** Handles each failed file by name and lets the run go on; without one, a run throws its first failure. */
+        public Builder onFailure(BiConsumer<String, Exception> onFailure) {
+            this.onFailure = onFailure;
+            return this;
+        }
+
+        /**
+         * The engines the built generator will use, one per format in run order; resolving them
+         * early lets a bad format or engine fail before anything else is set up.
+         */
+        public Map<String, FormatGenerator> generators() {
+            if (resolved != null) return resolved;
+            Map<String, FormatGenerator> byFormat = new LinkedHashMap<>();
+            if (!formats.isEmpty()) {
+                FormatGenerators registry = FormatGenerators.load();
+                for (String format : formats) {
+                    FormatGenerator g = registry.select(format.trim(), engines);
+                    byFormat.putIfAbsent(g.format(), g);
+                }
+            }
+            for (FormatGenerator g : custom) byFormat.put(g.format(), g);
+            if (byFormat.isEmpty()) throw new IllegalArgumentException("No formats to generate");
+
+            if (csvSchema != null) {
+                if (!(byFormat.get("csv") instanceof RawCsvFormatGenerator csv)) {
+                    throw new IllegalArgumentException("A CSV schema needs the csv format with the raw engine");
+                }
+                csv.setSchema(csvSchema);
+            }
+            if (xlsxPolicy != null) {
+                if (!(byFormat.get("xlsx") instanceof XlsxFormatGenerator xlsx)) {
+                    throw new IllegalArgumentException("XLSX temp file settings need the xlsx format with the poi engine");
+                }
+                xlsx.setPolicy(xlsxPolicy);
+            }
+            if (sizeTolerance >= 0) {
+                for (FormatGenerator g : byFormat.values()) {
+                    if (g instanceof CalibratedFormatGenerator calibrated) calibrated.setTolerance(sizeTolerance);
+                }
+            }
+            resolved = Collections.unmodifiableMap(byFormat);
+            return resolved;
+        }
+
+        public BulkGenerator build() {
+            return new BulkGenerator(this);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package org.file.generator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.Checksum;
+
+/**
+ * Destination for the bytes of one generated file.
+ * <p>
+ * Writers fill {@link #reserve(int)}'s buffer directly, so the hot path never allocates;
+ * stream based libraries (POI, PDFBox) go through {@link #outputStream()}.
+ * {@link #position()} always reports the number of bytes handed to the sink so far.
+ * An optional {@link #setChecksum checksum} sees every byte once, as it leaves the buffer.
+ */
+public abstract class ByteSink implements Closeable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    protected ByteBuffer buffer;
+    private long drained;
+    private Checksum checksum;
+
+    protected ByteSink(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Sink that drains into a channel. File channels get a direct buffer so writes go to the
+     * kernel without the JDK's hidden copy into a temporary direct buffer.
+     */
+    public static ByteSink of(WritableByteChannel channel) {
+        ByteBuffer buffer = channel instanceof FileChannel
+                ? ByteBuffer.allocateDirect(DEFAULT_BUFFER_SIZE)
+                : ByteBuffer.allocate(DEFAULT_BUFFER_SIZE);
+        return new ChannelSink(channel, buffer);
+    }
+
+    /**
+     * Sink that drains into {@code channel} through a buffer borrowed from {@code pool} and
+     * returned when the sink is closed.
+     */
+    public static ByteSink of(FileChannel channel, BufferPool pool) throws IOException {
+        return new PooledSink(channel, pool);
+    }
+
+    /** Sink that drains into an output stream. */
+    public static ByteSink of(OutputStream out) {
+        return of(Channels.newChannel(out));
+    }
+
+    /** Sink that fills a file of exactly {@code size} bytes through memory-mapped windows. */
+    public static ByteSink mapped(FileChannel channel, long size) throws IOException {
+        return new MappedSink(channel, size);
+    }
+
+    /** Sink that only counts what is written to it. */
+    public static ByteSink discard() {
+        return new ChannelSink(new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) {
+                int n = src.remaining();
+                src.position(src.limit());
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        }, ByteBuffer.allocate(DEFAULT_BUFFER_SIZE));
+    }
+
+    /** Sink that writes straight into {@code target}; overflowing it is an error. */
+    public static ByteSink of(ByteBuffer target) {
+        return new BufferSink(target);
+    }
+
+    /** Sink that keeps everything in a heap buffer that grows as needed. */
+    static CollectingSink collecting(int initialCapacity) {
+        return new CollectingSink(initialCapacity);
+    }
+
+    /** Feeds every byte written from now on into {@code checksum}. */
+    public void setChecksum(Checksum checksum) {
+        this.checksum = checksum;
+    }
+
+    /** Adds the remaining bytes of {@code written} to the checksum, if any, without consuming them. */
+    protected final void checksum(ByteBuffer written) {
+        if (checksum != null) checksum.update(written.duplicate());
+    }
+
+    /** Returns the working buffer with at least {@code n} bytes remaining. */
+    public ByteBuffer reserve(int n) throws IOException {
+        if (buffer.remaining() < n) {
+            flush();
+            if (buffer.remaining() < n) {
+                throw new BufferOverflowException();
+            }
+        }
+        return buffer;
+    }
+
+    /** Largest amount {@link #reserve(int)} can ever satisfy. */
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    public void write(byte[] src, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = Math.min(len, Math.max(1, buffer.remaining()));
+            reserve(n).put(src, off, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    public void write(ByteBuffer src) throws IOException {
+        while (src.hasRemaining()) {
+            int n = Math.min(src.remaining(), Math.max(1, buffer.remaining()));
+            ByteBuffer slice = src.slice(src.position(), n);
+            reserve(n).put(slice);
+            src.position(src.position() + n);
+        }
+    }
+
+    /** Bytes written to this sink so far, buffered or not. */
+    public long position() {
+        return drained + buffer.position();
+    }
+
+    /** Pushes buffered bytes to the underlying target. */
+    public void flush() throws IOException {
+        buffer.flip();
+        int n = buffer.remaining();
+        checksum(buffer);
+        drain(buffer);
+        drained += n;
+        buffer.clear();
+    }
+
+    /** Stream view of this sink; closing the stream only flushes the sink. */
+    public OutputStream outputStream() {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                reserve(1).put((byte) b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                ByteSink.this.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                ByteSink.this.flush();
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            closeTarget();
+        }
+    }
+
+    /** Writes all remaining bytes of {@code buf} to the target. */
+    protected abstract void drain(ByteBuffer buf) throws IOException;
+
+    protected abstract void closeTarget() throws IOException;
+
+    // ---------------- Implementations ----------------
+    static final class ChannelSink extends ByteSink {
+        private final WritableByteChannel channel;
+
+        ChannelSink(WritableByteChannel channel, ByteBuffer buffer) {
+            super(buffer);
+            this.channel = channel;
+        }
+
+        @Override
+        protected void drain(ByteBuffer buf) throws IOException {
+            while (buf.hasRemaining()) channel.write(buf);
+        }
+
+        @Override
+        protected void closeTarget() throws IOException {
+            channel.close();
+        }
+    }
+
+    static final class PooledSink extends ByteSink {
+        private final FileChannel channel;
+        private final BufferPool pool;
+
+        PooledSink(FileChannel channel, BufferPool pool) throws IOException {
+            super(pool.acquire());
+            this.channel = channel;
+            this.pool = pool;
+        }
+
+        @Override
+        protected void drain(ByteBuffer buf) throws IOException {
+            while (buf.hasRemaining()) channel.write(buf);
+        }
+
+        @Override
+        protected void closeTarget() throws IOException {
+            try {
+                channel.close();
+            } finally {
+                pool.release(buffer);
+            }
+        }
+    }
+
+    static final class BufferSink extends ByteSink {
+        private final int start;
+        private int checked;
+
+        BufferSink(ByteBuffer target) {
+            super(target);
+            this.start = target.position();
+            this.checked = start;
+        }
+
+        @Override
+        public ByteBuffer reserve(int n) {
+            if (buffer.remaining() < n) throw new BufferOverflowException();
+            return buffer;
+        }
+
+        @Override
+        public long position() {
+            return buffer.position() - start;
+        }
+
+        @Override
+        public void flush() {
+            // bytes already live in the target buffer
+            checksum(buffer.duplicate().position(checked).limit(buffer.position()));
+            checked = buffer.position();
+        }
+
+        @Override
+        protected void drain(ByteBuffer buf) {
+        }
+
+        @Override
+        protected void closeTarget() {
+        }
+    }
+
+    static final class CollectingSink extends ByteSink {
+        private int checked;
+
+        CollectingSink(int initialCapacity) {
+            super(ByteBuffer.allocate(Math.max(initialCapacity, 16)));
+        }
+
+        @Override
+        public ByteBuffer reserve(int n) {
+            if (buffer.remaining() < n) {
+                long grown = Math.max((long) buffer.capacity() * 2, (long) buffer.position() + n);
+                if (grown > Integer.MAX_VALUE - 8) throw new BufferOverflowException();
+                ByteBuffer bigger = ByteBuffer.allocate((int) grown);
+                buffer = bigger.put(buffer.flip());
+            }
+            return buffer;
+        }
+
+        @Override
+        public int capacity() {
+            return Math.max(buffer.capacity(), DEFAULT_BUFFER_SIZE);
+        }
+
+        @Override
+        public long position() {
+            return buffer.position();
+        }
+
+        @Override
+        public void flush() {
+            checksum(buffer.duplicate().position(checked).limit(buffer.position()));
+            checked = buffer.position();
+        }
+
+        /** The heap array holding the bytes written so far, from offset 0 to {@link #position()}. */
+        byte[] array() {
+            return buffer.array();
+        }
+
+        @Override
+        protected void drain(ByteBuffer buf) {
+        }
+
+        @Override
+        protected void closeTarget() {
+        }
+    }
+}
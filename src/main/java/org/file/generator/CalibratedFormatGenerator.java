@@ -0,0 +1,114 @@
+package org.file.generator;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Base class for engines whose output size cannot be steered byte by byte (compressed or
+ * object-structured formats).
+ * <p>
+ * A short warm-up writes samples of increasing unit counts to a discarding sink and fits a
+ * {@link SizeModel}; every file then writes the predicted number of units in a single pass.
+ * Samples grow until the model predicts the next one within the configured tolerance. Samples
+ * are filled by the run's {@link ContentSource}, since compressed containers grow with how well
+ * their text compresses, and one model is kept per content source. A model depends only on the
+ * engine and the content source, never on the files of a run, so seeded runs stay reproducible.
+ * Calibration runs under a {@link ReentrantLock} rather than a monitor, so virtual threads
+ * waiting for it, or running its sample I/O, do not pin their carrier threads.
+ */
+public abstract class CalibratedFormatGenerator implements FormatGenerator {
+
+    private static final long FIRST_SAMPLE = 50;
+    private static final int MAX_SAMPLES = 6;
+
+    private final Map<ContentSource, SizeModel> models = new ConcurrentHashMap<>();
+    private final ReentrantLock calibration = new ReentrantLock();
+    private volatile double tolerance = 0.02;
+    private final LongAdder files = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /** Writes exactly {@code units} content units; returns the bytes written. */
+    protected abstract long writeUnits(FileSpec spec, long units, ByteSink sink) throws IOException;
+
+    /** Relative size error accepted for the model and counted as a miss afterwards, e.g. {@code 0.02}. */
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public double tolerance() {
+        return tolerance;
+    }
+
+    /** Runs the warm-up once per content source; later calls return its fitted model. */
+    public SizeModel calibrate(ContentSource content) throws IOException {
+        SizeModel model = models.get(content);
+        if (model != null) return model;
+        calibration.lock();
+        try {
+            return fit(content);
+        } finally {
+            calibration.unlock();
+        }
+    }
+
+    private SizeModel fit(ContentSource content) throws IOException {
+        SizeModel model = models.get(content);
+        // Fitted by whoever held the lock before
+        if (model != null) return model;
+
+        long[] units = new long[MAX_SAMPLES];
+        long[] bytes = new long[MAX_SAMPLES];
+        units[0] = FIRST_SAMPLE;
+        bytes[0] = sample(FIRST_SAMPLE, content);
+        units[1] = FIRST_SAMPLE * 10;
+        bytes[1] = sample(units[1], content);
+        int n = 2;
+        SizeModel fitted = SizeModel.fit(units, bytes, n);
+
+        while (n < MAX_SAMPLES) {
+            long next = units[n - 1] * 4;
+            long actual = sample(next, content);
+            double error = Math.abs(fitted.predict(next) - actual) / (double) actual;
+            units[n] = next;
+            bytes[n] = actual;
+            fitted = SizeModel.fit(units, bytes, ++n);
+            if (error <= tolerance) break;
+        }
+        models.put(content, fitted);
+        return fitted;
+    }
+
+    private long sample(long units, ContentSource content) throws IOException {
+        try (ByteSink sink = ByteSink.discard()) {
+            return writeUnits(new FileSpec(format(), 0, 0, new SplittableRandom(units), content), units, sink);
+        }
+    }
+
+    @Override
+    public long write(FileSpec spec, ByteSink sink) throws IOException {
+        SizeModel m = models.get(spec.content());
+        if (m == null) m = calibrate(spec.content());
+        long written = writeUnits(spec, m.unitsFor(spec.targetSize()), sink);
+
+        files.increment();
+        if (spec.targetSize() > 0
+                && Math.abs(written - spec.targetSize()) > tolerance * spec.targetSize()) {
+            misses.increment();
+        }
+        return written;
+    }
+
+    /** Files written so far. */
+    public long files() {
+        return files.sum();
+    }
+
+    /** Files that ended up outside {@link #tolerance()} of their target size. */
+    public long misses() {
+        return misses.sum();
+    }
+}
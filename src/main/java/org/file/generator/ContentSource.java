@@ -0,0 +1,34 @@
+package org.file.generator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.random.RandomGenerator;
+
+/**
+ * Where engines get the random {@code [A-Za-z0-9]} filler for their content. Implementations
+ * are shared by all workers and must be thread-safe; per-file randomness comes from the caller.
+ */
+@FunctionalInterface
+public interface ContentSource {
+
+    /** Draws every character from the PRNG. */
+    ContentSource PRNG = Ascii::putAlnum;
+
+    /** Puts {@code n} filler bytes into {@code dst}, which must have room for them. */
+    void fill(ByteBuffer dst, int n, RandomGenerator rnd);
+
+    /**
+     * Block size this source shapes content in, or 0 if it has no preference. Engines that write
+     * long runs of filler align their fills to it relative to the start of the file.
+     */
+    default int blockSize() {
+        return 0;
+    }
+
+    /** Filler as a string, for engines built on character APIs (POI, PDFBox). */
+    default String text(int n, RandomGenerator rnd) {
+        ByteBuffer buf = ByteBuffer.allocate(n);
+        fill(buf, n, rnd);
+        return new String(buf.array(), 0, n, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,198 @@
+package org.file.generator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.random.RandomGenerator;
+
+/**
+ * One typed column of a {@link CsvSchema}. Values are drawn as primitives and encoded as ASCII
+ * straight into the row buffer; callers reserve {@link #maxLength()} bytes first.
+ */
+public sealed interface CsvColumn {
+
+    String name();
+
+    /** Longest value {@link #write} can produce. */
+    int maxLength();
+
+    void write(ByteBuffer buf, ContentSource content, RandomGenerator rnd);
+
+    /** A column that can be stretched to any length, which lands the last row of a file on its exact size. */
+    sealed interface Paddable extends CsvColumn {
+
+        /** Shortest value {@link #writePadded} accepts. */
+        int minPadded();
+
+        /** Writes a value of exactly {@code length} bytes. */
+        void writePadded(ByteBuffer buf, int length, ContentSource content, RandomGenerator rnd);
+    }
+
+    /** {@code int(min..max)} / {@code long(min..max)}. */
+    record Int(String name, long min, long max) implements CsvColumn {
+
+        @Override
+        public int maxLength() {
+            return Math.max(length(min), length(max));
+        }
+
+        private static int length(long v) {
+            // -Long.MIN_VALUE overflows; its 19 digits are those of Long.MAX_VALUE
+            return v < 0 ? 1 + Ascii.digits(v == Long.MIN_VALUE ? Long.MAX_VALUE : -v) : Ascii.digits(v);
+        }
+
+        private long next(RandomGenerator rnd) {
+            return max == Long.MAX_VALUE ? rnd.nextLong(min, max) : rnd.nextLong(min, max + 1);
+        }
+
+        @Override
+        public void write(ByteBuffer buf, ContentSource content, RandomGenerator rnd) {
+            long v = next(rnd);
+            if (v == Long.MIN_VALUE) {
+                // No positive long holds its magnitude: write all but the last digit, then that
+                buf.put((byte) '-');
+                Ascii.putLong(buf, -(v / 10));
+                buf.put((byte) ('0' - v % 10));
+            } else if (v < 0) {
+                buf.put((byte) '-');
+                Ascii.putLong(buf, -v);
+            } else {
+                Ascii.putLong(buf, v);
+            }
+        }
+    }
+
+    /** {@code decimal(precision,scale)}: non-negative fixed-point value with {@code scale} fraction digits. */
+    record Decimal(String name, int precision, int scale) implements CsvColumn {
+
+        private int fraction() {
+            return scale > 0 ? 1 + scale : 0;
+        }
+
+        @Override
+        public int maxLength() {
+            return Math.max(1, precision - scale) + fraction();
+        }
+
+        @Override
+        public void write(ByteBuffer buf, ContentSource content, RandomGenerator rnd) {
+            long unscaled = rnd.nextLong(Ascii.pow10(precision));
+            long scaleFactor = Ascii.pow10(scale);
+            Ascii.putLong(buf, unscaled / scaleFactor);
+            if (scale > 0) {
+                buf.put((byte) '.');
+                Ascii.putLong(buf, unscaled % scaleFactor, scale);
+            }
+        }
+    }
+
+    /** {@code double}: uniform value in [0, 1) as {@code 0.} plus 16 digits, without {@code Double.toString}. */
+    record Fraction(String name) implements CsvColumn {
+
+        private static final int DIGITS = 16;
+
+        @Override
+        public int maxLength() {
+            return 2 + DIGITS;
+        }
+
+        @Override
+        public void write(ByteBuffer buf, ContentSource content, RandomGenerator rnd) {
+            buf.put((byte) '0').put((byte) '.');
+            Ascii.putLong(buf, rnd.nextLong(Ascii.pow10(DIGITS)), DIGITS);
+        }
+    }
+
+    /** {@code str(n)} / {@code str(min..max)}: filler text from the run's {@link ContentSource}. */
+    record Text(String name, int min, int max) implements Paddable {
+
+        @Override
+        public int maxLength() {
+            return max;
+        }
+
+        @Override
+        public void write(ByteBuffer buf, ContentSource content, RandomGenerator rnd) {
+            int n = min == max ? min : rnd.nextInt(min, max + 1);
+            content.fill(buf, n, rnd);
+        }
+
+        @Override
+        public int minPadded() {
+            return 0;
+        }
+
+        @Override
+        public void writePadded(ByteBuffer buf, int length, ContentSource content, RandomGenerator rnd) {
+            content.fill(buf, length, rnd);
+        }
+    }
+
+    /** {@code timestamp} ({@code yyyy-MM-ddTHH:mm:ssZ}) or {@code date} ({@code yyyy-MM-dd}) between 2000 and 2030. */
+    record Timestamp(String name, boolean withTime) implements CsvColumn {
+
+        private static final long FROM = 946_684_800L;   // 2000-01-01
+        private static final long TO = 1_893_456_000L;   // 2030-01-01
+
+        @Override
+        public int maxLength() {
+            return withTime ? 20 : 10;
+        }
+
+        @Override
+        public void write(ByteBuffer buf, ContentSource content, RandomGenerator rnd) {
+            long seconds = rnd.nextLong(FROM, TO);
+            long days = seconds / 86_400;
+            int secondOfDay = (int) (seconds % 86_400);
+
+            // civil_from_days (H. Hinnant), valid for the positive epoch range used here
+            long z = days + 719_468;
+            long era = z / 146_097;
+            long doe = z - era * 146_097;
+            long yoe = (doe - doe / 1460 + doe / 36_524 - doe / 146_096) / 365;
+            long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+            long mp = (5 * doy + 2) / 153;
+            long day = doy - (153 * mp + 2) / 5 + 1;
+            long month = mp < 10 ? mp + 3 : mp - 9;
+            long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+
+            Ascii.putLong(buf, year, 4);
+            buf.put((byte) '-');
+            Ascii.putLong(buf, month, 2);
+            buf.put((byte) '-');
+            Ascii.putLong(buf, day, 2);
+            if (withTime) {
+                buf.put((byte) 'T');
+                Ascii.putLong(buf, secondOfDay / 3600, 2);
+                buf.put((byte) ':');
+                Ascii.putLong(buf, secondOfDay / 60 % 60, 2);
+                buf.put((byte) ':');
+                Ascii.putLong(buf, secondOfDay % 60, 2);
+                buf.put((byte) 'Z');
+            }
+        }
+    }
+
+    /** {@code enum(A|B|C)}: one of the listed values, pre-encoded and quoted where CSV needs it. */
+    record Choice(String name, byte[][] values) implements CsvColumn {
+
+        static Choice of(String name, String[] values) {
+            byte[][] encoded = new byte[values.length][];
+            for (int i = 0; i < values.length; i++) {
+                encoded[i] = CsvSchema.quote(values[i]).getBytes(StandardCharsets.US_ASCII);
+            }
+            return new Choice(name, encoded);
+        }
+
+        @Override
+        public int maxLength() {
+            int max = 0;
+            for (byte[] v : values) max = Math.max(max, v.length);
+            return max;
+        }
+
+        @Override
+        public void write(ByteBuffer buf, ContentSource content, RandomGenerator rnd) {
+            buf.put(values[rnd.nextInt(values.length)]);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.file.generator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CSV engine "writer": {@code int,string,double} rows through a {@link BufferedWriter}.
+ */
+@FormatEngine(format = "csv", engine = "writer")
+public class CsvFormatGenerator implements FormatGenerator {
+
+    @Override
+    public long write(FileSpec spec, ByteSink sink) throws IOException {
+        long start = sink.position();
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(sink.outputStream(), StandardCharsets.UTF_8))) {
+            long written = 0;
+            while (written < spec.targetSize()) {
+                String line = spec.random().nextInt(1000) + "," + spec.content().text(10, spec.random()) + "," + spec.random().nextDouble() + "\n";
+                writer.write(line);
+                written += line.getBytes().length;
+            }
+        }
+        return sink.position() - start;
+    }
+}
@@ -0,0 +1,196 @@
+package org.file.generator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Column layout of generated CSV files, parsed from {@code --csv-schema=}, e.g.
+ * {@code id:long,name:str(8..32),amount:decimal(12,2),ts:timestamp,status:enum(A|B|C)}.
+ * <p>
+ * Supported types: {@code int[(min..max)]}, {@code long[(min..max)]}, {@code decimal(p,s)},
+ * {@code double}, {@code str(n)}, {@code str(min..max)}, {@code timestamp}, {@code date} and
+ * {@code enum(a|b|...)}. An explicit schema also writes a header row. Names and enum values that
+ * hold a comma, quote or line break are quoted. Every schema needs a {@code str} column: the last
+ * row of a file stretches it to land on the exact size.
+ */
+public final class CsvSchema {
+
+    /** The historical {@code int,string,double} row, without header. */
+    public static final CsvSchema DEFAULT = parse("id:int(0..999),name:str(10),value:double", false);
+
+    /** Largest row accepted, so a row always fits a sink buffer twice over. */
+    static final int MAX_ROW = 16 * 1024;
+
+    private final CsvColumn[] columns;
+    private final byte[] header;
+    private final int padColumn;
+    private final CsvColumn.Paddable padded;
+    private final int maxRow;
+    private final int minLastRow;
+
+    private CsvSchema(CsvColumn[] columns, boolean header) {
+        this.columns = columns;
+
+        StringBuilder names = new StringBuilder();
+        int pad = -1;
+        int max = columns.length;   // separators and newline
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) names.append(',');
+            names.append(quote(columns[i].name()));
+            max += columns[i].maxLength();
+            if (pad < 0 && columns[i] instanceof CsvColumn.Paddable) pad = i;
+        }
+        names.append('\n');
+        // The last row may need up to a row's worth of padding, far beyond any number's width
+        if (pad < 0) throw new IllegalArgumentException("CSV schema needs a str column to hit exact file sizes");
+        if (max > MAX_ROW) {
+            throw new IllegalArgumentException("CSV rows can be up to " + max + " bytes; the limit is " + MAX_ROW);
+        }
+
+        this.header = header ? names.toString().getBytes(StandardCharsets.US_ASCII) : new byte[0];
+        this.padColumn = pad;
+        this.padded = (CsvColumn.Paddable) columns[pad];
+        this.maxRow = max;
+        this.minLastRow = max - padded.maxLength() + padded.minPadded();
+    }
+
+    public static CsvSchema parse(String spec) {
+        return parse(spec, true);
+    }
+
+    static CsvSchema parse(String spec, boolean header) {
+        List<CsvColumn> columns = new ArrayList<>();
+        for (String part : splitTopLevel(spec)) {
+            int colon = part.indexOf(':');
+            if (colon <= 0) throw new IllegalArgumentException("Expected name:type in CSV schema, got '" + part + "'");
+            columns.add(column(part.substring(0, colon).trim(), part.substring(colon + 1).trim()));
+        }
+        if (columns.isEmpty()) throw new IllegalArgumentException("Empty CSV schema");
+        return new CsvSchema(columns.toArray(new CsvColumn[0]), header);
+    }
+
+    private static CsvColumn column(String name, String type) {
+        int paren = type.indexOf('(');
+        String kind = (paren < 0 ? type : type.substring(0, paren)).trim().toLowerCase();
+        String args = paren < 0 ? null : type.substring(paren + 1, type.lastIndexOf(')')).trim();
+        return switch (kind) {
+            case "int" -> args == null
+                    ? new CsvColumn.Int(name, 0, Integer.MAX_VALUE)
+                    : new CsvColumn.Int(name, range(args)[0], range(args)[1]);
+            case "long" -> args == null
+                    ? new CsvColumn.Int(name, 0, Long.MAX_VALUE)
+                    : new CsvColumn.Int(name, range(args)[0], range(args)[1]);
+            case "decimal" -> {
+                String[] ps = args == null ? new String[]{"12", "2"} : args.split(",");
+                int precision = Integer.parseInt(ps[0].trim());
+                int scale = ps.length > 1 ? Integer.parseInt(ps[1].trim()) : 0;
+                if (precision < 1 || precision > 18 || scale < 0 || scale > precision) {
+                    throw new IllegalArgumentException("decimal(p,s) needs 1 <= p <= 18 and 0 <= s <= p: " + type);
+                }
+                yield new CsvColumn.Decimal(name, precision, scale);
+            }
+            case "double" -> new CsvColumn.Fraction(name);
+            case "str", "string" -> {
+                long[] r = args == null ? new long[]{10, 10} : range(args);
+                if (r[0] < 0 || r[1] > MAX_ROW) {
+                    throw new IllegalArgumentException("str lengths must be between 0 and " + MAX_ROW + ": " + type);
+                }
+                yield new CsvColumn.Text(name, (int) r[0], (int) r[1]);
+            }
+            case "timestamp" -> new CsvColumn.Timestamp(name, true);
+            case "date" -> new CsvColumn.Timestamp(name, false);
+            case "enum" -> {
+                if (args == null || args.isEmpty()) throw new IllegalArgumentException("enum needs values: " + type);
+                yield CsvColumn.Choice.of(name, args.split("\\|"));
+            }
+            default -> throw new IllegalArgumentException("Unknown CSV column type '" + kind + "' for " + name);
+        };
+    }
+
+    /** {@code n} or {@code min..max}. */
+    private static long[] range(String args) {
+        int dots = args.indexOf("..");
+        long min = Long.parseLong((dots < 0 ? args : args.substring(0, dots)).trim());
+        long max = dots < 0 ? min : Long.parseLong(args.substring(dots + 2).trim());
+        if (min > max) throw new IllegalArgumentException("Empty range " + args);
+        return new long[]{min, max};
+    }
+
+    /** {@code value} as a CSV field: in double quotes, with quotes doubled, if it holds a separator. */
+    static String quote(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    /** Splits on commas outside parentheses, so {@code decimal(12,2)} stays one column. */
+    private static List<String> splitTopLevel(String spec) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        int from = 0;
+        for (int i = 0; i < spec.length(); i++) {
+            char c = spec.charAt(i);
+            if (c == '(') depth++;
+            else if (c == ')') depth--;
+            else if (c == ',' && depth == 0) {
+                if (!spec.substring(from, i).isBlank()) parts.add(spec.substring(from, i).trim());
+                from = i + 1;
+            }
+        }
+        if (!spec.substring(from).isBlank()) parts.add(spec.substring(from).trim());
+        return parts;
+    }
+
+    public byte[] header() {
+        return header;
+    }
+
+    /** Upper bound of one row including separators and newline. */
+    public int maxRow() {
+        return maxRow;
+    }
+
+    /** Smallest size {@link #writeRow(ByteBuffer, int, ContentSource, RandomGenerator)} can hit. */
+    public int minLastRow() {
+        return minLastRow;
+    }
+
+    public void writeRow(ByteBuffer buf, ContentSource content, RandomGenerator rnd) {
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) buf.put((byte) ',');
+            columns[i].write(buf, content, rnd);
+        }
+        buf.put((byte) '\n');
+    }
+
+    /**
+     * Writes one row of exactly {@code length} bytes, at least {@link #minLastRow()}, by stretching
+     * the pad column. Columns after it are written first and then moved up past the padding, so
+     * {@code buf} needs no more than {@code length} bytes of room.
+     */
+    public void writeRow(ByteBuffer buf, int length, ContentSource content, RandomGenerator rnd) {
+        int start = buf.position();
+        for (int i = 0; i < padColumn; i++) {
+            columns[i].write(buf, content, rnd);
+            buf.put((byte) ',');
+        }
+        int padAt = buf.position();
+        for (int i = padColumn + 1; i < columns.length; i++) {
+            buf.put((byte) ',');
+            columns[i].write(buf, content, rnd);
+        }
+        buf.put((byte) '\n');
+
+        int tail = buf.position() - padAt;
+        int pad = length - (buf.position() - start);
+        buf.put(padAt + pad, buf, padAt, tail);
+        buf.position(padAt);
+        padded.writePadded(buf, pad, content, rnd);
+        buf.position(start + length);
+    }
+}
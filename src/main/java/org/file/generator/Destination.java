@@ -0,0 +1,26 @@
+package org.file.generator;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Where a {@link BulkGenerator} puts the files it generates: a directory, an archive, memory or
+ * channels. Implementations must be thread-safe; {@link #write} is called from every worker.
+ *
+ * @see Destinations
+ */
+public interface Destination extends Closeable {
+
+    /**
+     * Generates one file with {@code generator} and stores it as {@code name}, a relative path
+     * such as {@code 3f/a2/file_17.txt}.
+     *
+     * @return the number of bytes written
+     */
+    long write(String name, FormatGenerator generator, FileSpec spec) throws IOException;
+
+    /** Finishes whatever the destination holds open; the caller closes it once its runs are done. */
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,74 @@
+package org.file.generator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The {@link Destination}s a {@link BulkGenerator} can write to.
+ */
+public final class Destinations {
+
+    /** Opens the channel of one file, e.g. an upload stream; it is closed once the file is written. */
+    @FunctionalInterface
+    public interface ChannelOpener {
+        WritableByteChannel open(String name) throws IOException;
+    }
+
+    private Destinations() {
+    }
+
+    /** Files under {@code root}, streamed with the default buffering. */
+    public static DirectoryDestination directory(Path root) throws IOException {
+        return new DirectoryDestination(root);
+    }
+
+    /** Files kept in memory as byte arrays. */
+    public static MemoryDestination memory() {
+        return new MemoryDestination();
+    }
+
+    /**
+     * Every file back to back into {@code channel}, one file at a time in completion order, so
+     * workers queue up behind the channel; use {@link #channels} to write files in parallel. The
+     * channel is left open.
+     */
+    public static Destination channel(WritableByteChannel channel) {
+        WritableByteChannel shared = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                return channel.write(src);
+            }
+
+            @Override
+            public boolean isOpen() {
+                return channel.isOpen();
+            }
+
+            @Override
+            public void close() {
+                // the caller owns the channel
+            }
+        };
+        ReentrantLock lock = new ReentrantLock();
+        return (name, generator, spec) -> {
+            lock.lock();
+            try (ByteSink sink = ByteSink.of(shared)) {
+                return generator.write(spec, sink);
+            } finally {
+                lock.unlock();
+            }
+        };
+    }
+
+    /** Every file into its own channel from {@code opener}, written in parallel. */
+    public static Destination channels(ChannelOpener opener) {
+        return (name, generator, spec) -> {
+            try (ByteSink sink = ByteSink.of(opener.open(name))) {
+                return generator.write(spec, sink);
+            }
+        };
+    }
+}
@@ -0,0 +1,132 @@
+package org.file.generator;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+/**
+ * Writes every file under a root directory ({@code --output=}) the way {@link IoMode} and
+ * {@link FillMode} ask for.
+ * <p>
+ * Files are written under a temporary {@code .part} name and renamed once complete, so a final
+ * name never holds a partial file; only then is the {@link Listener} told, which is where
+ * {@code --resume}'s journal records it. Write buffers are borrowed from one {@link BufferPool},
+ * never allocated per file, and each fan-out directory costs a single {@code mkdir}.
+ */
+public final class DirectoryDestination implements Destination {
+
+    /** Told about every file once it is complete under its final name. */
+    @FunctionalInterface
+    public interface Listener {
+        void published(FileSpec spec, long written, int checksum) throws IOException;
+    }
+
+    private static final int MMAP_MIN_SIZE = 1024 * 1024;
+
+    private final Path root;
+    private final IoMode io;
+    private final FillMode fill;
+    private final BufferPool buffers;
+    private final WriteStage stage;
+    private final Listener listener;
+    private final Set<Path> directories = ConcurrentHashMap.newKeySet();
+
+    /** Streams content files with a buffer for each of up to {@link BulkGenerator#DEFAULT_CONCURRENCY} files in flight. */
+    public DirectoryDestination(Path root) throws IOException {
+        this(root, IoMode.STREAM, FillMode.CONTENT, 0, 0, BulkGenerator.DEFAULT_CONCURRENCY, null);
+    }
+
+    /**
+     * @param ioThreads  writer threads of {@link IoMode#PIPELINE}
+     * @param ioDepth    writes {@link IoMode#PIPELINE} queues before workers wait
+     * @param maxBuffers write buffers in the pool: one per file in flight, plus the pipeline's
+     *                   queued and in-progress writes
+     * @param listener   told about published files, or {@code null}
+     */
+    public DirectoryDestination(Path root, IoMode io, FillMode fill, int ioThreads, int ioDepth,
+                                int maxBuffers, Listener listener) throws IOException {
+        Files.createDirectories(root);
+        this.root = root;
+        this.io = io;
+        this.fill = fill;
+        this.listener = listener;
+        this.buffers = new BufferPool(ByteSink.DEFAULT_BUFFER_SIZE, maxBuffers);
+        this.stage = io == IoMode.PIPELINE ? new WriteStage(buffers, ioThreads, ioDepth) : null;
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    @Override
+    public long write(String name, FormatGenerator generator, FileSpec spec) throws IOException {
+        Path path = root.resolve(name);
+        Path dir = path.getParent();
+        // Racing creators are harmless: createDirectories accepts an existing directory
+        if (dir != null && !dir.equals(root) && !directories.contains(dir)) {
+            Files.createDirectories(dir);
+            directories.add(dir);
+        }
+        Path part = path.resolveSibling(path.getFileName() + ".part");
+        CRC32C checksum = new CRC32C();
+        long written;
+        try {
+            written = fill.generatesContent()
+                    ? writeFile(part, generator, spec, checksum)
+                    : fill.write(part, spec.targetSize());
+            Files.move(part, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(part);
+            throw e;
+        }
+        if (listener != null) listener.published(spec, written, (int) checksum.getValue());
+        return written;
+    }
+
+    private long writeFile(Path path, FormatGenerator generator, FileSpec spec, Checksum checksum) throws IOException {
+        long size = spec.targetSize();
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Mapping only pays off for files of at least MMAP_MIN_SIZE whose length is known up front
+        boolean mapped = io == IoMode.MMAP && generator.exactSize() && size >= MMAP_MIN_SIZE;
+        ByteSink sink;
+        try {
+            if (fill == FillMode.PREALLOCATE) FillMode.reserve(channel, size);
+            sink = mapped ? ByteSink.mapped(channel, size)
+                    : stage != null ? stage.open(channel)
+                    : ByteSink.of(channel, buffers);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        sink.setChecksum(checksum);
+        try (sink) {
+            long written = generator.write(spec, sink);
+            if (fill == FillMode.PREALLOCATE && !generator.exactSize()) {
+                // Give back whatever part of the reserved length the engine did not fill
+                sink.flush();
+                channel.truncate(sink.position());
+            }
+            return written;
+        }
+    }
+
+    /** Fan-out directories created so far. */
+    public long directoriesCreated() {
+        return directories.size();
+    }
+
+    /** Stops the pipeline's writer threads; every file written so far is complete. */
+    @Override
+    public void close() throws IOException {
+        if (stage != null) stage.close();
+    }
+}
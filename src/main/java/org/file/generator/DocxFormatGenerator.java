@@ -0,0 +1,38 @@
+package org.file.generator;
+
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * DOCX engine "poi": one {@link XWPFParagraph} per 200 random characters. The paragraph count
+ * comes from the calibrated {@link SizeModel}.
+ */
+@FormatEngine(format = "docx", engine = "poi")
+public class DocxFormatGenerator extends CalibratedFormatGenerator {
+
+    @Override
+    public boolean boundedMemory() {
+        return false;
+    }
+
+    @Override
+    protected long writeUnits(FileSpec spec, long paragraphs, ByteSink sink) throws IOException {
+        long start = sink.position();
+        try (XWPFDocument doc = new XWPFDocument();
+             OutputStream out = OoxmlSupport.zipStream(sink.outputStream())) {
+
+            OoxmlSupport.pinCreated(doc.getProperties());
+            for (long i = 0; i < paragraphs; i++) {
+                XWPFParagraph p = doc.createParagraph();
+                XWPFRun run = p.createRun();
+                run.setText(spec.content().text(200, spec.random()));
+            }
+            doc.write(out);
+        }
+        return sink.position() - start;
+    }
+}
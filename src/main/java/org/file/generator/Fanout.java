@@ -0,0 +1,105 @@
+package org.file.generator;
+
+import java.util.Locale;
+
+/**
+ * Directory layout of a run ({@code --fanout=<levels>x<width>[:hash|range]}): files are spread
+ * over {@code width^levels} leaf directories named by fixed-width hex digits, e.g.
+ * {@code 3f/a2/file_17.txt} for {@code 2x256}, so no directory grows past a few thousand entries.
+ * <p>
+ * {@code hash} scatters indices evenly with a SplitMix64 hash; {@code range} keeps consecutive
+ * indices in the same leaf, so walking the tree in name order reads files in index order. The leaf
+ * depends only on the index, so the same index of every format shares a directory. The layout is
+ * immutable; {@link DirectoryDestination} creates each leaf on first use.
+ */
+public final class Fanout {
+
+    public enum Mode { HASH, RANGE }
+
+    /** Everything directly in the output folder. */
+    public static final Fanout FLAT = new Fanout(0, 1, Mode.HASH, 1);
+
+    private static final long MAX_LEAVES = 1L << 28;
+
+    private final int levels;
+    private final int width;
+    private final Mode mode;
+    private final long leaves;
+    private final long perLeaf;
+    private final String[] names;
+
+    private Fanout(int levels, int width, Mode mode, long perLeaf) {
+        this.levels = levels;
+        this.width = width;
+        this.mode = mode;
+        this.leaves = leaves(levels, width);
+        this.perLeaf = perLeaf;
+        int digits = Integer.toHexString(width - 1).length();
+        this.names = new String[levels == 0 ? 0 : width];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = String.format(Locale.ROOT, "%0" + digits + "x", i);
+        }
+    }
+
+    /** Parses {@code 2x256}, {@code 2x256:hash} or {@code 3x100:range}; {@code 0} or {@code flat} means no fan-out. */
+    public static Fanout parse(String value) {
+        String spec = value.trim().toLowerCase(Locale.ROOT);
+        if (spec.equals("0") || spec.equals("flat") || spec.isEmpty()) return FLAT;
+        Mode mode = Mode.HASH;
+        int colon = spec.indexOf(':');
+        if (colon >= 0) {
+            mode = Mode.valueOf(spec.substring(colon + 1).trim().toUpperCase(Locale.ROOT));
+            spec = spec.substring(0, colon).trim();
+        }
+        int x = spec.indexOf('x');
+        if (x < 0) throw new IllegalArgumentException("Fan-out must look like <levels>x<width>, e.g. 2x256: " + value);
+        int levels = Integer.parseInt(spec.substring(0, x).trim());
+        int width = Integer.parseInt(spec.substring(x + 1).trim());
+        if (levels < 1 || width < 2) {
+            throw new IllegalArgumentException("Fan-out needs at least 1 level of width 2: " + value);
+        }
+        if (leaves(levels, width) > MAX_LEAVES) {
+            throw new IllegalArgumentException("Fan-out " + value + " has more than " + MAX_LEAVES + " leaf directories");
+        }
+        return new Fanout(levels, width, mode, 1);
+    }
+
+    /**
+     * This layout for formats of at most {@code maxIndex} files; {@code range} splits
+     * {@code 1..maxIndex} into one contiguous run per leaf.
+     */
+    public Fanout forFiles(long maxIndex) {
+        if (levels == 0 || mode == Mode.HASH) return this;
+        return new Fanout(levels, width, mode, Math.max(1, (maxIndex + leaves - 1) / leaves));
+    }
+
+    /** Relative leaf directory of file {@code index} as a name prefix, e.g. {@code "3f/a2/"}; empty when flat. */
+    public String prefix(long index) {
+        if (levels == 0) return "";
+        long leaf = leaf(index);
+        StringBuilder prefix = new StringBuilder(levels * (names[0].length() + 1));
+        long divisor = leaves;
+        for (int l = 0; l < levels; l++) {
+            divisor /= width;
+            prefix.append(names[(int) (leaf / divisor % width)]).append('/');
+        }
+        return prefix.toString();
+    }
+
+    private long leaf(long index) {
+        return mode == Mode.RANGE
+                ? Math.min((index - 1) / perLeaf, leaves - 1)
+                : Long.remainderUnsigned(Seeds.mix(index), leaves);
+    }
+
+    private static long leaves(int levels, int width) {
+        long n = 1;
+        for (int l = 0; l < levels && n <= MAX_LEAVES; l++) n *= width;
+        return n;
+    }
+
+    @Override
+    public String toString() {
+        return levels == 0 ? "flat" : levels + "x" + width + ":" + mode.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,41 @@
+package org.file.generator;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event committed for every generated file while a flight recording runs, e.g. with
+ * {@code -XX:StartFlightRecording:filename=run.jfr}; without one it costs a flag check. Its
+ * duration is the file's open-to-close time.
+ */
+@Name("org.file.generator.FileGenerated")
+@Label("File Generated")
+@Category({"File Generator"})
+@Description("One generated file with its target and actual size")
+@StackTrace(false)
+public final class FileGeneratedEvent extends jdk.jfr.Event {
+
+    @Label("Format")
+    public String format;
+
+    @Label("Engine")
+    public String engine;
+
+    @Label("Index")
+    public long index;
+
+    @Label("Target Size")
+    @DataAmount
+    public long targetSize;
+
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytes;
+
+    @Label("Failed")
+    public boolean failed;
+}
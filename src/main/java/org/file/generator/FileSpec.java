@@ -0,0 +1,11 @@
+package org.file.generator;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * What to generate for one file: its format, its index within that format, the size to aim for,
+ * the file's private random stream (see {@link Seeds#forFile}) and the run's filler source.
+ * Engines must draw all their randomness from {@link #random()} to keep seeded runs reproducible.
+ */
+public record FileSpec(String format, long index, long targetSize, RandomGenerator random, ContentSource content) {
+}
@@ -0,0 +1,79 @@
+package org.file.generator;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * What goes into a file's bytes ({@code --fill=}). {@link #SPARSE} and {@link #ZERO} skip the
+ * engines entirely and only produce a file of the target size and name, for capacity and quota
+ * tests; such files are not checksummed and are journaled with a checksum of 0.
+ */
+public enum FillMode {
+    /** Content generated by the format's engine. */
+    CONTENT,
+    /** Only the length is set: the file is one hole and allocates no data blocks. */
+    SPARSE,
+    /** Zeros, written from one shared direct buffer so nothing is generated or allocated per file. */
+    ZERO,
+    /**
+     * The file is filled with zeros up to its target size before the engine writes into it, so
+     * every data block is allocated up front, in few extents, and a full disk fails the file before
+     * any content is generated. This writes each byte twice; engines without an exact size are
+     * truncated to what they wrote.
+     */
+    PREALLOCATE;
+
+    private static final ByteBuffer ZEROS = ByteBuffer.allocateDirect(1024 * 1024).asReadOnlyBuffer();
+
+    public static FillMode parse(String value) {
+        return valueOf(value.trim().toUpperCase());
+    }
+
+    /** Whether files of this mode are written by the format's engine. */
+    public boolean generatesContent() {
+        return this == CONTENT || this == PREALLOCATE;
+    }
+
+    /** Writes {@code path} with exactly {@code size} bytes of this mode's non-generated content. */
+    public long write(Path path, long size) throws IOException {
+        switch (this) {
+            case SPARSE -> {
+                try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+                    file.setLength(size);
+                }
+            }
+            case ZERO -> {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    long remaining = size;
+                    while (remaining > 0) {
+                        ByteBuffer zeros = ZEROS.duplicate();
+                        zeros.limit((int) Math.min(zeros.capacity(), remaining));
+                        remaining -= zeros.remaining();
+                        while (zeros.hasRemaining()) channel.write(zeros);
+                    }
+                }
+            }
+            default -> throw new IllegalStateException(this + " files are written by their engine");
+        }
+        return size;
+    }
+
+    /**
+     * Allocates {@code channel} up to {@code size} bytes by writing zeros past its current end, in
+     * chunks of the shared buffer; extending the length alone would only leave a hole. The
+     * channel's position is left as it was.
+     */
+    public static void reserve(FileChannel channel, long size) throws IOException {
+        long pos = channel.size();
+        while (pos < size) {
+            ByteBuffer zeros = ZEROS.duplicate();
+            zeros.limit((int) Math.min(zeros.capacity(), size - pos));
+            while (zeros.hasRemaining()) pos += channel.write(zeros, pos);
+        }
+    }
+}
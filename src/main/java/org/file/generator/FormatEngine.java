@@ -0,0 +1,26 @@
+package org.file.generator;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * {@link FormatGenerator#format()}, {@link FormatGenerator#engine()} and
+ * {@link FormatGenerator#priority()} of an engine, readable from its class without instantiating
+ * it. {@link FormatGenerators} only instantiates the annotated engines a run selects, so a
+ * {@code txt} run never links POI or PDFBox. The generator's methods return these values unless
+ * it overrides them, which it should not.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface FormatEngine {
+
+    String format();
+
+    String engine();
+
+    int priority() default 0;
+}
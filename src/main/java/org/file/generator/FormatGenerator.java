@@ -0,0 +1,83 @@
+package org.file.generator;
+
+import java.io.IOException;
+
+/**
+ * Service provider for one file format.
+ * <p>
+ * Implementations are discovered with {@link java.util.ServiceLoader} (see
+ * {@code META-INF/services/org.file.generator.FormatGenerator}). Several engines may serve the
+ * same format; the one with the highest {@link #priority()} is used unless {@code --engine=} picks
+ * another. Implementations must be thread-safe: one instance serves every file of a run.
+ * Annotating them with {@link FormatEngine} lets the registry list them without loading their
+ * libraries until a run selects them, and supplies {@link #format()}, {@link #engine()} and
+ * {@link #priority()}, which such engines leave alone.
+ */
+public interface FormatGenerator {
+
+    /** Format key and file extension, e.g. {@code "txt"}; by default {@link FormatEngine#format()}. */
+    default String format() {
+        return declaration().format();
+    }
+
+    /** Engine name as used by {@code --engine=}, e.g. {@code "poi"}; by default {@link FormatEngine#engine()}. */
+    default String engine() {
+        return declaration().engine();
+    }
+
+    /**
+     * Engine picked for {@link #format()} when none is requested explicitly; by default
+     * {@link FormatEngine#priority()}, or 0 without the annotation.
+     */
+    default int priority() {
+        FormatEngine declared = getClass().getAnnotation(FormatEngine.class);
+        return declared == null ? 0 : declared.priority();
+    }
+
+    /**
+     * Whether {@link #write} always produces exactly {@code targetSize} bytes, which lets the
+     * caller size the file up front (e.g. for {@code --io=mmap}).
+     */
+    default boolean exactSize() {
+        return false;
+    }
+
+    /**
+     * Whether {@link #write} lays its content out in blocks of {@link ContentSource#blockSize()}
+     * from the start of the file, which {@code --dedup} needs to produce duplicate blocks.
+     */
+    default boolean blockAligned() {
+        return false;
+    }
+
+    /**
+     * Whether {@link #write} needs the same memory for any {@code targetSize}, streaming its output
+     * in bounded chunks. Engines that build a whole document model in memory first return false.
+     */
+    default boolean boundedMemory() {
+        return true;
+    }
+
+    /**
+     * Bytes this engine has written to temporary files so far, on top of its output, e.g. sheet
+     * data that POI writes to disk and reads back. Reported per run as {@code tempBytes}.
+     */
+    default long tempBytes() {
+        return 0;
+    }
+
+    /**
+     * Writes one file of roughly {@code spec.targetSize()} bytes into {@code sink}.
+     *
+     * @return the number of bytes actually written
+     */
+    long write(FileSpec spec, ByteSink sink) throws IOException;
+
+    private FormatEngine declaration() {
+        FormatEngine declared = getClass().getAnnotation(FormatEngine.class);
+        if (declared == null) {
+            throw new IllegalStateException(getClass().getName() + " needs @FormatEngine or its own format() and engine()");
+        }
+        return declared;
+    }
+}
@@ -0,0 +1,134 @@
+package org.file.generator;
+
+import java.util.*;
+
+/**
+ * Registry of the {@link FormatGenerator} engines available on the class path.
+ * <p>
+ * Engines annotated with {@link FormatEngine} are listed from their class alone and instantiated
+ * the first time {@link #select} picks them, so only the engines a run uses link their libraries
+ * (POI, XMLBeans, PDFBox). Engines without the annotation are instantiated while loading.
+ * Not thread-safe.
+ */
+public final class FormatGenerators {
+
+    /** One engine of a format; {@code instance} is created on first use. */
+    private static final class Candidate {
+        private final int priority;
+        private final ServiceLoader.Provider<FormatGenerator> provider;
+        private final FormatEngine declared;
+        private FormatGenerator instance;
+
+        Candidate(int priority, ServiceLoader.Provider<FormatGenerator> provider, FormatEngine declared,
+                  FormatGenerator instance) {
+            this.priority = priority;
+            this.provider = provider;
+            this.declared = declared;
+            this.instance = instance;
+        }
+
+        FormatGenerator get() {
+            if (instance == null) {
+                FormatGenerator g = provider.get();
+                if (!g.format().equalsIgnoreCase(declared.format()) || !g.engine().equalsIgnoreCase(declared.engine())
+                        || g.priority() != declared.priority()) {
+                    throw new IllegalStateException(g.getClass().getName() + " reports " + g.format() + ":" + g.engine()
+                            + " priority " + g.priority() + " but is annotated " + declared.format() + ":"
+                            + declared.engine() + " priority " + declared.priority());
+                }
+                instance = g;
+            }
+            return instance;
+        }
+    }
+
+    private final Map<String, Map<String, Candidate>> byFormat = new TreeMap<>();
+
+    private FormatGenerators() {
+    }
+
+    public static FormatGenerators load() {
+        FormatGenerators registry = new FormatGenerators();
+        ServiceLoader.load(FormatGenerator.class).stream().forEach(provider -> {
+            // Provider.type() loads the class without linking it, so its libraries stay untouched
+            FormatEngine declared = provider.type().getAnnotation(FormatEngine.class);
+            String format;
+            String engine;
+            Candidate candidate;
+            if (declared != null) {
+                format = declared.format();
+                engine = declared.engine();
+                candidate = new Candidate(declared.priority(), provider, declared, null);
+            } else {
+                FormatGenerator g = provider.get();
+                format = g.format();
+                engine = g.engine();
+                candidate = new Candidate(g.priority(), provider, null, g);
+            }
+            registry.byFormat
+                    .computeIfAbsent(format.toLowerCase(), k -> new TreeMap<>())
+                    .put(engine.toLowerCase(), candidate);
+        });
+        return registry;
+    }
+
+    public Set<String> formats() {
+        return Collections.unmodifiableSet(byFormat.keySet());
+    }
+
+    public Set<String> engines(String format) {
+        return Collections.unmodifiableSet(byFormat.getOrDefault(format.toLowerCase(), Map.of()).keySet());
+    }
+
+    /**
+     * Picks the engine for {@code format}.
+     *
+     * @param engines requested engines, either {@code format -> engine} or {@code "*" -> engine}
+     *                for "use this engine wherever it exists"
+     */
+    public FormatGenerator select(String format, Map<String, String> engines) {
+        String fmt = format.toLowerCase();
+        Map<String, Candidate> candidates = byFormat.get(fmt);
+        if (candidates == null) {
+            throw new IllegalArgumentException("Unsupported format: " + format);
+        }
+
+        String wanted = engines.get(fmt);
+        if (wanted != null) {
+            Candidate c = candidates.get(wanted.toLowerCase());
+            if (c == null) {
+                throw new IllegalArgumentException("Unknown engine '" + wanted + "' for " + fmt
+                        + " (available: " + String.join(",", candidates.keySet()) + ")");
+            }
+            return c.get();
+        }
+
+        String any = engines.get("*");
+        if (any != null && candidates.containsKey(any.toLowerCase())) {
+            return candidates.get(any.toLowerCase()).get();
+        }
+
+        return candidates.values().stream()
+                .max(Comparator.comparingInt((Candidate c) -> c.priority))
+                .orElseThrow()
+                .get();
+    }
+
+    /**
+     * Parses an {@code --engine=} value such as {@code pdf:pdfbox,txt:writer} or {@code raw}.
+     */
+    public static Map<String, String> parseEngines(String value) {
+        Map<String, String> engines = new HashMap<>();
+        for (String part : value.split(",")) {
+            part = part.trim();
+            if (part.isEmpty()) continue;
+            int colon = part.indexOf(':');
+            if (colon < 0) {
+                engines.put("*", part.toLowerCase());
+            } else {
+                engines.put(part.substring(0, colon).trim().toLowerCase(), part.substring(colon + 1).trim().toLowerCase());
+            }
+        }
+        return engines;
+    }
+}
@@ -0,0 +1,130 @@
+package org.file.generator;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of one format within a run. Every method is lock-free and safe to call from any
+ * number of workers; readers get a consistent enough view once the run is over.
+ */
+public final class FormatMetrics {
+
+    private final String format;
+    private final String engine;
+    private final LongAdder files = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder targetBytes = new LongAdder();
+    private final LongAdder tempBytes = new LongAdder();
+    private final LongAccumulator firstStart = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator lastEnd = new LongAccumulator(Math::max, Long.MIN_VALUE);
+    /** Open-to-close time per file, in nanoseconds. */
+    private final Histogram latency = new Histogram();
+    /** {@code |bytes - targetSize| / targetSize} per file, in parts per million. */
+    private final Histogram sizeError = new Histogram();
+
+    FormatMetrics(String format, String engine) {
+        this.format = format;
+        this.engine = engine;
+    }
+
+    /** A file written successfully between {@code startNanos} and {@code endNanos}. */
+    public void completed(long startNanos, long endNanos, long targetSize, long written) {
+        files.increment();
+        bytes.add(written);
+        targetBytes.add(targetSize);
+        span(startNanos, endNanos);
+        latency.record(endNanos - startNanos);
+        if (targetSize > 0) {
+            sizeError.record(Math.abs(written - targetSize) * 1_000_000 / targetSize);
+        }
+    }
+
+    public void failed(long startNanos, long endNanos) {
+        failures.increment();
+        span(startNanos, endNanos);
+    }
+
+    /** Bytes the engine wrote to temporary files besides the files themselves, see {@link FormatGenerator#tempBytes()}. */
+    public void addTempBytes(long bytes) {
+        tempBytes.add(bytes);
+    }
+
+    /** Adds the totals of another run of this format, e.g. a shard's; its histograms are merged separately. */
+    void merge(long files, long failures, long bytes, long targetBytes, long tempBytes, long startNanos, long endNanos) {
+        this.files.add(files);
+        this.failures.add(failures);
+        this.bytes.add(bytes);
+        this.targetBytes.add(targetBytes);
+        this.tempBytes.add(tempBytes);
+        span(startNanos, endNanos);
+    }
+
+    private void span(long startNanos, long endNanos) {
+        firstStart.accumulate(startNanos);
+        lastEnd.accumulate(endNanos);
+    }
+
+    public String format() {
+        return format;
+    }
+
+    public String engine() {
+        return engine;
+    }
+
+    public long files() {
+        return files.sum();
+    }
+
+    public long failures() {
+        return failures.sum();
+    }
+
+    public long bytes() {
+        return bytes.sum();
+    }
+
+    public long targetBytes() {
+        return targetBytes.sum();
+    }
+
+    public long tempBytes() {
+        return tempBytes.sum();
+    }
+
+    public Histogram latency() {
+        return latency;
+    }
+
+    public Histogram sizeError() {
+        return sizeError;
+    }
+
+    /** {@link System#nanoTime()} of this format's first file opening; {@code Long.MAX_VALUE} if none. */
+    long firstStartNanos() {
+        return firstStart.get();
+    }
+
+    /** {@link System#nanoTime()} of this format's last file closing; {@code Long.MIN_VALUE} if none. */
+    long lastEndNanos() {
+        return lastEnd.get();
+    }
+
+    /** Time from this format's first file opening to its last one closing, in seconds. */
+    public double seconds() {
+        long first = firstStart.get();
+        long last = lastEnd.get();
+        return last > first ? (last - first) / 1e9 : 0;
+    }
+
+    public double filesPerSecond() {
+        double s = seconds();
+        return s > 0 ? files() / s : 0;
+    }
+
+    public double mbPerSecond() {
+        double s = seconds();
+        return s > 0 ? bytes() / (1024.0 * 1024.0) / s : 0;
+    }
+}
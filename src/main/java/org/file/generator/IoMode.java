@@ -0,0 +1,17 @@
+package org.file.generator;
+
+/**
+ * How exact-size engines put their bytes on disk ({@code --io=}).
+ */
+public enum IoMode {
+    /** Buffered writes through a {@code FileChannel}. */
+    STREAM,
+    /** Size the file up front and fill it through {@code MappedByteBuffer} windows. */
+    MMAP,
+    /** Hand full buffers to a separate I/O stage and keep generating (see {@link WriteStage}). */
+    PIPELINE;
+
+    public static IoMode parse(String value) {
+        return valueOf(value.trim().toUpperCase());
+    }
+}
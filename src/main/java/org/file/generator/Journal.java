@@ -0,0 +1,243 @@
+package org.file.generator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of the files a run has published, used by {@code --resume} to skip them.
+ * <p>
+ * The file starts with a header frame of {@code key=value} lines describing the run, followed by
+ * batch frames of {@code (format, index, size, crc32c)} records with varint fields, about 12 bytes
+ * per file. Every frame is {@code [length][crc32c][payload]}, so a batch torn by a crash is
+ * detected on load and cut off. Workers only enqueue records; one writer thread appends whatever
+ * has queued up as one frame of up to {@value #MAX_BATCH} records, so frames grow with load. A
+ * killed process loses nothing already handed to the kernel; only {@link #close()} forces the
+ * journal to disk.
+ */
+public final class Journal implements Closeable {
+
+    public static final String FILE_NAME = ".bulkgen-journal";
+
+    private static final int MAGIC = 0x42474A31; // "BGJ1"
+    private static final int MAX_BATCH = 4096;
+    private static final long FLUSH_MILLIS = 100;
+    private static final int MAX_RECORD = 1 + 10 + 10 + 4;
+
+    private record Entry(int format, long index, long size, int checksum) {
+    }
+
+    private final FileChannel channel;
+    private final Map<String, String> header;
+    private final List<LongBitSet> published = new ArrayList<>();
+    private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(4 * MAX_BATCH);
+    private final Thread writer;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    private Journal(FileChannel channel, Map<String, String> header) {
+        this.channel = channel;
+        this.header = header;
+        this.writer = Thread.ofPlatform().daemon().name("journal").unstarted(this::writeLoop);
+    }
+
+    /** Starts a new journal at {@code file}, replacing any previous one. */
+    public static Journal create(Path file, Map<String, String> header) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Journal journal = new Journal(channel, new LinkedHashMap<>(header));
+        StringBuilder text = new StringBuilder();
+        header.forEach((k, v) -> text.append(k).append('=').append(v).append('\n'));
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer frame = ByteBuffer.allocate(4 + bytes.length);
+        frame.putInt(MAGIC).put(bytes).flip();
+        journal.writeFrame(frame);
+        channel.force(false);
+        journal.writer.start();
+        return journal;
+    }
+
+    /**
+     * Loads the journal at {@code file} and reopens it for appending. A torn last batch is
+     * truncated away; the files it named are simply generated again.
+     */
+    public static Journal resume(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer first = readFrame(channel, ByteBuffer.allocate(64 * 1024));
+            if (first == null || first.remaining() < 4 || first.getInt() != MAGIC) {
+                throw new IOException("Not a generation journal: " + file);
+            }
+            Map<String, String> header = new LinkedHashMap<>();
+            for (String line : StandardCharsets.UTF_8.decode(first).toString().split("\n")) {
+                int eq = line.indexOf('=');
+                if (eq > 0) header.put(line.substring(0, eq), line.substring(eq + 1));
+            }
+
+            Journal journal = new Journal(channel, header);
+            ByteBuffer buf = ByteBuffer.allocateDirect(MAX_BATCH * MAX_RECORD);
+            ByteBuffer batch;
+            while ((batch = readFrame(channel, buf)) != null) {
+                while (batch.hasRemaining()) {
+                    int format = batch.get() & 0xFF;
+                    long index = getVarLong(batch);
+                    getVarLong(batch);
+                    batch.getInt();
+                    journal.published(format).add(index);
+                }
+            }
+            channel.truncate(channel.position());
+            journal.writer.start();
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** The run description this journal was created with. */
+    public Map<String, String> header() {
+        return header;
+    }
+
+    /** Whether file {@code index} of the {@code format}-th format was published by an earlier run. */
+    public boolean isPublished(int format, long index) {
+        return format < published.size() && published.get(format).contains(index);
+    }
+
+    /** Number of files of the {@code format}-th format published by earlier runs. */
+    public long publishedCount(int format) {
+        return format < published.size() ? published.get(format).size() : 0;
+    }
+
+    private LongBitSet published(int format) {
+        while (published.size() <= format) published.add(new LongBitSet());
+        return published.get(format);
+    }
+
+    /** Records a published file; blocks only while the writer is a full queue behind. */
+    public void append(int format, long index, long size, int checksum) throws IOException {
+        Entry entry = new Entry(format, index, size, checksum);
+        try {
+            do {
+                if (failure != null) throw failure;
+            } while (!queue.offer(entry, FLUSH_MILLIS, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while journaling " + index);
+        }
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(MAX_BATCH);
+        ByteBuffer payload = ByteBuffer.allocateDirect(MAX_BATCH * MAX_RECORD);
+        try {
+            while (!closed || !queue.isEmpty()) {
+                Entry first = queue.poll(FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+
+                payload.clear();
+                for (Entry e : batch) {
+                    payload.put((byte) e.format());
+                    putVarLong(payload, e.index());
+                    putVarLong(payload, e.size());
+                    payload.putInt(e.checksum());
+                }
+                payload.flip();
+                writeFrame(payload);
+                batch.clear();
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            failure = new InterruptedIOException("Journal writer interrupted");
+        }
+    }
+
+    private void writeFrame(ByteBuffer payload) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        ByteBuffer head = ByteBuffer.allocate(8).putInt(payload.remaining()).putInt((int) crc.getValue()).flip();
+        ByteBuffer[] frame = {head, payload};
+        while (payload.hasRemaining() || head.hasRemaining()) channel.write(frame);
+    }
+
+    /**
+     * Reads the next intact frame's payload into {@code buf}. At the end or at a torn frame it
+     * returns {@code null} and leaves the channel positioned where that frame starts.
+     */
+    private static ByteBuffer readFrame(FileChannel channel, ByteBuffer buf) throws IOException {
+        long start = channel.position();
+        ByteBuffer head = ByteBuffer.allocate(8);
+        if (!readFully(channel, head)) return torn(channel, start);
+        int length = head.getInt(0);
+        int expected = head.getInt(4);
+        if (length < 0 || length > buf.capacity()) return torn(channel, start);
+        buf.clear().limit(length);
+        if (!readFully(channel, buf)) return torn(channel, start);
+        buf.flip();
+        CRC32C crc = new CRC32C();
+        crc.update(buf.duplicate());
+        return (int) crc.getValue() == expected ? buf : torn(channel, start);
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (channel.read(buf) < 0) return false;
+        }
+        return true;
+    }
+
+    private static ByteBuffer torn(FileChannel channel, long start) throws IOException {
+        channel.position(start);
+        return null;
+    }
+
+    private static void putVarLong(ByteBuffer buf, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer buf) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buf.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+
+    /** Writes out every queued record and closes the file. */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing the journal");
+        } finally {
+            channel.close();
+        }
+        if (failure != null) throw failure;
+    }
+}
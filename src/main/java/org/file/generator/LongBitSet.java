@@ -0,0 +1,39 @@
+package org.file.generator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Set of non-negative {@code long}s as bits in 8 KB pages, allocated only where members exist.
+ * Twenty million file indices take about 2.5 MB. Not thread-safe.
+ */
+final class LongBitSet {
+
+    private static final int PAGE_BITS = 16;
+    private static final int PAGE_WORDS = (1 << PAGE_BITS) / 64;
+
+    private final Map<Long, long[]> pages = new HashMap<>();
+    private long size;
+
+    /** Adds {@code value}; returns whether it was absent. */
+    boolean add(long value) {
+        long[] page = pages.computeIfAbsent(value >>> PAGE_BITS, k -> new long[PAGE_WORDS]);
+        int bit = (int) (value & ((1 << PAGE_BITS) - 1));
+        long mask = 1L << bit;
+        if ((page[bit >>> 6] & mask) != 0) return false;
+        page[bit >>> 6] |= mask;
+        size++;
+        return true;
+    }
+
+    boolean contains(long value) {
+        long[] page = pages.get(value >>> PAGE_BITS);
+        if (page == null) return false;
+        int bit = (int) (value & ((1 << PAGE_BITS) - 1));
+        return (page[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    long size() {
+        return size;
+    }
+}
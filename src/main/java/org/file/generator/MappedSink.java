@@ -0,0 +1,125 @@
+package org.file.generator;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Sink that writes a file of known size in place through memory-mapped windows, so bytes are
+ * never copied through a user-space buffer or a charset encoder.
+ * <p>
+ * Each window is unmapped as soon as the next one is mapped, and the last when the sink closes,
+ * so a run holds one mapping per file in flight however many files it writes; left to the
+ * garbage collector, mappings pile up until a collection happens to free them. Buffers from
+ * {@link #reserve(int)} are only valid until the next call, as for every sink.
+ */
+final class MappedSink extends ByteSink {
+
+    static final int WINDOW = 64 * 1024 * 1024;
+
+    /**
+     * {@code sun.misc.Unsafe.invokeCleaner}: the JDK 21 way to unmap a buffer on demand, as
+     * scoped mappings ({@code FileChannel.map} into an {@code Arena}) are still a preview API
+     * there. {@code null} if {@code jdk.unsupported} is not available; windows then wait for the
+     * collector.
+     */
+    private static final MethodHandle INVOKE_CLEANER = invokeCleaner();
+
+    private final FileChannel channel;
+    private final long size;
+    private long windowStart;
+    private int checked;
+
+    MappedSink(FileChannel channel, long size) throws IOException {
+        super(ByteBuffer.allocate(0));
+        this.channel = channel;
+        this.size = size;
+        // Mapping a window past the end extends the file; only a longer file needs cutting
+        if (channel.size() > size) channel.truncate(size);
+        map(0);
+    }
+
+    private static MethodHandle invokeCleaner() {
+        try {
+            Class<?> unsafe = Class.forName("sun.misc.Unsafe");
+            Field instance = unsafe.getDeclaredField("theUnsafe");
+            instance.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafe, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(instance.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void map(long offset) throws IOException {
+        if (buffer.capacity() > 0) {
+            flush();
+            unmap(buffer);
+        }
+        windowStart = offset;
+        checked = 0;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, offset, Math.min(WINDOW, size - offset));
+    }
+
+    private static void unmap(ByteBuffer window) {
+        if (INVOKE_CLEANER == null) return;
+        try {
+            INVOKE_CLEANER.invokeExact(window);
+        } catch (Throwable e) {
+            // Still mapped; the collector unmaps it once the buffer is unreachable
+        }
+    }
+
+    @Override
+    public ByteBuffer reserve(int n) throws IOException {
+        if (buffer.remaining() < n) {
+            long next = windowStart + buffer.position();
+            if (size - next < n) throw new BufferOverflowException();
+            map(next);
+        }
+        return buffer;
+    }
+
+    @Override
+    public int capacity() {
+        return (int) Math.min(WINDOW, size);
+    }
+
+    @Override
+    public long position() {
+        return windowStart + buffer.position();
+    }
+
+    @Override
+    public void flush() {
+        // pages are written back by the kernel
+        checksum(buffer.duplicate().position(checked).limit(buffer.position()));
+        checked = buffer.position();
+    }
+
+    @Override
+    protected void drain(ByteBuffer buf) {
+    }
+
+    @Override
+    protected void closeTarget() throws IOException {
+        try {
+            if (buffer.capacity() > 0) {
+                // Keep position() answering after the window is gone
+                windowStart += buffer.position();
+                ByteBuffer window = buffer;
+                buffer = ByteBuffer.allocate(0);
+                checked = 0;
+                unmap(window);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.file.generator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps every generated file in memory, e.g. for test fixtures generated in-process. Files must
+ * fit a byte array; a name written twice keeps its last content.
+ */
+public final class MemoryDestination implements Destination {
+
+    private final Map<String, ByteBuffer> files = new ConcurrentHashMap<>();
+
+    @Override
+    public long write(String name, FormatGenerator generator, FileSpec spec) throws IOException {
+        // Exact-size engines get a buffer of the final size up front and never grow it
+        int initial = generator.exactSize() && spec.targetSize() < Integer.MAX_VALUE - 8
+                ? (int) spec.targetSize()
+                : ByteSink.DEFAULT_BUFFER_SIZE;
+        ByteSink.CollectingSink sink = ByteSink.collecting(initial);
+        long written;
+        try (sink) {
+            written = generator.write(spec, sink);
+        }
+        files.put(name, ByteBuffer.wrap(sink.array(), 0, (int) sink.position()).slice().asReadOnlyBuffer());
+        return written;
+    }
+
+    /** Names of the files held, e.g. {@code file_1.txt}. */
+    public Set<String> names() {
+        return Collections.unmodifiableSet(files.keySet());
+    }
+
+    /** Read-only view of file {@code name}, or {@code null}. */
+    public ByteBuffer file(String name) {
+        ByteBuffer buf = files.get(name);
+        return buf == null ? null : buf.duplicate();
+    }
+
+    /** Copy of file {@code name}, or {@code null}. */
+    public byte[] bytes(String name) {
+        ByteBuffer buf = file(name);
+        if (buf == null) return null;
+        byte[] bytes = new byte[buf.remaining()];
+        buf.get(bytes);
+        return bytes;
+    }
+
+    public int size() {
+        return files.size();
+    }
+
+    /** Drops every file, e.g. between runs. */
+    public void clear() {
+        files.clear();
+    }
+}
@@ -0,0 +1,41 @@
+package org.file.generator;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.poi.ooxml.POIXMLProperties;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * Pins the wall-clock parts of POI output (zip entry times, {@code dcterms:created}) so that
+ * seeded runs produce byte-identical OOXML files.
+ */
+final class OoxmlSupport {
+
+    /** 2000-01-01T00:00:00Z, used for every timestamp written into a package. */
+    static final long FIXED_TIME = 946_684_800_000L;
+
+    private OoxmlSupport() {
+    }
+
+    static void pinCreated(POIXMLProperties properties) {
+        properties.getCoreProperties().setCreated(Optional.of(new Date(FIXED_TIME)));
+    }
+
+    /**
+     * Zip stream POI recognises and writes into directly, stamping every entry with
+     * {@link #FIXED_TIME} instead of the current time.
+     */
+    static ZipArchiveOutputStream zipStream(OutputStream out) {
+        return new ZipArchiveOutputStream(out) {
+            @Override
+            public void putArchiveEntry(ZipArchiveEntry entry) throws IOException {
+                entry.setTime(FIXED_TIME);
+                super.putArchiveEntry(entry);
+            }
+        };
+    }
+}
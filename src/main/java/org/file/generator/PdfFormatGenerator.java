@@ -0,0 +1,75 @@
+package org.file.generator;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * PDF engine "pdfbox": Letter pages of 200 character Helvetica lines built with {@link PDDocument}.
+ * The line count comes from the calibrated {@link SizeModel}.
+ */
+@FormatEngine(format = "pdf", engine = "pdfbox")
+public class PdfFormatGenerator extends CalibratedFormatGenerator {
+
+    @Override
+    public boolean boundedMemory() {
+        return false;
+    }
+
+    @Override
+    protected long writeUnits(FileSpec spec, long lines, ByteSink sink) throws IOException {
+        long start = sink.position();
+        try (PDDocument doc = new PDDocument()) {
+            PDPage page = new PDPage(PDRectangle.LETTER);
+            doc.addPage(page);
+
+            float y = 700;
+            PDPageContentStream cs = new PDPageContentStream(doc, page);
+
+            for (long i = 0; i < lines; i++) {
+                // Create new page if needed
+                if (y < 50) {
+                    cs.close();                  // close old stream
+                    page = new PDPage(PDRectangle.LETTER);
+                    doc.addPage(page);
+                    cs = new PDPageContentStream(doc, page); // open new stream
+                    y = 700;
+                }
+
+                String text = spec.content().text(200, spec.random());
+                cs.beginText();
+                cs.setFont(PDType1Font.HELVETICA, 12);
+                cs.newLineAtOffset(50, y);
+                cs.showText(text);
+                cs.endText();
+
+                y -= 15;
+            }
+
+            cs.close();
+            pinDocumentId(doc, spec);
+            try (OutputStream out = sink.outputStream()) {
+                doc.save(out);
+            }
+        }
+        return sink.position() - start;
+    }
+
+    /** PDFBox otherwise derives the trailer /ID from the current time. */
+    private static void pinDocumentId(PDDocument doc, FileSpec spec) {
+        byte[] id = new byte[16];
+        spec.random().nextBytes(id);
+        COSArray ids = new COSArray();
+        ids.add(new COSString(id));
+        ids.add(new COSString(id));
+        doc.getDocument().getTrailer().setItem(COSName.ID, ids);
+    }
+}
@@ -0,0 +1,145 @@
+package org.file.generator;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Draws run progress from a single background thread that samples the {@link RunMetrics}
+ * counters at a fixed rate, so workers never touch the console or a shared monitor. On a terminal
+ * it redraws one bar line ten times a second; otherwise (or with {@code --progress=log}) it prints
+ * a plain log line every few seconds.
+ */
+public final class ProgressRenderer implements AutoCloseable {
+
+    /** How progress is shown ({@code --progress=}). */
+    public enum Mode {
+        /** {@link #BAR} on a terminal, {@link #LOG} otherwise. */
+        AUTO,
+        BAR,
+        LOG,
+        OFF;
+
+        public static Mode parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private static final long BAR_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final int BAR_WIDTH = 30;
+    /** Weight of the newest sample in the smoothed rates. */
+    private static final double SMOOTHING = 0.2;
+
+    private final RunMetrics metrics;
+    private final long total;
+    private final PrintStream out;
+    private final Mode mode;
+    private final long startNanos = System.nanoTime();
+    private final Thread thread;
+    private volatile boolean stopped;
+
+    private long lastNanos = startNanos;
+    private long lastFiles;
+    private long lastBytes;
+    private double filesRate = Double.NaN;
+    private double bytesRate = Double.NaN;
+
+    private ProgressRenderer(RunMetrics metrics, long total, Mode mode, PrintStream out) {
+        this.metrics = metrics;
+        this.total = total;
+        this.mode = mode;
+        this.out = out;
+        this.thread = mode == Mode.OFF ? null : Thread.ofPlatform().daemon().name("progress").unstarted(this::loop);
+    }
+
+    /** Starts rendering progress of {@code total} files to {@code out}. */
+    public static ProgressRenderer start(RunMetrics metrics, long total, Mode mode, PrintStream out) {
+        if (mode == Mode.AUTO) mode = System.console() != null ? Mode.BAR : Mode.LOG;
+        ProgressRenderer renderer = new ProgressRenderer(metrics, total, mode, out);
+        if (renderer.thread != null) renderer.thread.start();
+        return renderer;
+    }
+
+    private void loop() {
+        long interval = mode == Mode.BAR ? BAR_INTERVAL_NANOS : LOG_INTERVAL_NANOS;
+        long next = System.nanoTime() + interval;
+        while (!stopped) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+                continue;
+            }
+            render(false);
+            next += interval;
+        }
+    }
+
+    private void render(boolean last) {
+        long now = System.nanoTime();
+        long files = 0;
+        long bytes = 0;
+        StringBuilder perFormat = new StringBuilder();
+        for (FormatMetrics m : metrics.formats()) {
+            long done = m.files() + m.failures();
+            files += done;
+            bytes += m.bytes();
+            perFormat.append(' ').append(m.format()).append(' ').append(done);
+        }
+
+        double elapsed = (now - startNanos) / 1e9;
+        double dt = (now - lastNanos) / 1e9;
+        if (last) {
+            filesRate = elapsed > 0 ? files / elapsed : 0;
+            bytesRate = elapsed > 0 ? bytes / elapsed : 0;
+        } else if (dt > 0) {
+            filesRate = smooth(filesRate, (files - lastFiles) / dt);
+            bytesRate = smooth(bytesRate, (bytes - lastBytes) / dt);
+        }
+        lastNanos = now;
+        lastFiles = files;
+        lastBytes = bytes;
+
+        int percent = total > 0 ? (int) (100 * files / total) : 100;
+        String eta = last ? "done" : filesRate > 0 ? "ETA " + duration((total - files) / filesRate) : "ETA --";
+        String stats = String.format(Locale.ROOT, "%d%% (%d/%d) %.0f files/s %.1f MB/s %s |%s",
+                percent, files, total, filesRate, bytesRate / (1024 * 1024), eta, perFormat);
+
+        if (mode == Mode.BAR) {
+            int filled = total > 0 ? (int) (files * BAR_WIDTH / total) : BAR_WIDTH;
+            out.print("\r[" + "=".repeat(filled) + " ".repeat(BAR_WIDTH - filled) + "] " + stats + "\033[K");
+            if (last) out.println();
+        } else {
+            out.printf(Locale.ROOT, "[%s] %s%n", duration(elapsed), stats);
+        }
+        out.flush();
+    }
+
+    private static double smooth(double previous, double sample) {
+        return Double.isNaN(previous) ? sample : previous + SMOOTHING * (sample - previous);
+    }
+
+    private static String duration(double seconds) {
+        long s = Math.round(seconds);
+        return String.format(Locale.ROOT, "%d:%02d:%02d", s / 3600, s / 60 % 60, s % 60);
+    }
+
+    /**
+     * Stops sampling and draws the final state once. If interrupted while waiting for the sampler
+     * to finish, keeps the interrupt and skips the final line rather than draw it concurrently.
+     */
+    @Override
+    public void close() {
+        if (thread == null) return;
+        stopped = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        render(true);
+    }
+}
@@ -0,0 +1,72 @@
+package org.file.generator;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only, off-heap block of random filler built once per run. Files take their content as
+ * segments copied from random offsets, which turns generation into bulk memory copies: one PRNG
+ * draw per segment instead of one per character. With a 64 MB pool two segments of the same
+ * file, or of different files, practically never start at the same offset.
+ */
+public final class RandomBlockPool implements ContentSource {
+
+    public static final int DEFAULT_SIZE = 64 * 1024 * 1024;
+    /** Longest run copied from one offset. */
+    static final int MAX_SEGMENT = 4096;
+    /**
+     * Below this length a random pool offset costs more (cache and TLB miss) than drawing the
+     * characters, so short fields such as CSV cells come straight from the PRNG.
+     */
+    static final int MIN_SEGMENT = 64;
+    private static final int FILL_CHUNK = 1024 * 1024;
+
+    private final ByteBuffer pool;
+    private final int size;
+
+    private RandomBlockPool(ByteBuffer pool) {
+        this.pool = pool.asReadOnlyBuffer();
+        this.size = pool.capacity();
+    }
+
+    /** Builds a pool of {@code size} bytes; the content is a pure function of {@code seed}. */
+    public static RandomBlockPool create(int size, long seed) {
+        size = Math.max(size, MAX_SEGMENT);
+        ByteBuffer pool = ByteBuffer.allocateDirect(size);
+
+        int chunks = (size + FILL_CHUNK - 1) / FILL_CHUNK;
+        SplittableRandom root = Seeds.forFile(seed, "pool", 0);
+        SplittableRandom[] streams = new SplittableRandom[chunks];
+        for (int i = 0; i < chunks; i++) streams[i] = root.split();
+
+        int total = size;
+        IntStream.range(0, chunks).parallel().forEach(i -> {
+            int from = i * FILL_CHUNK;
+            int n = Math.min(FILL_CHUNK, total - from);
+            ByteBuffer chunk = pool.slice(from, n);
+            Ascii.putAlnum(chunk, n, streams[i]);
+        });
+        return new RandomBlockPool(pool);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void fill(ByteBuffer dst, int n, RandomGenerator rnd) {
+        if (n < MIN_SEGMENT) {
+            Ascii.putAlnum(dst, n, rnd);
+            return;
+        }
+        while (n > 0) {
+            int len = Math.min(n, MAX_SEGMENT);
+            int from = rnd.nextInt(size - len + 1);
+            dst.put(dst.position(), pool, from, len);
+            dst.position(dst.position() + len);
+            n -= len;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.file.generator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.random.RandomGenerator;
+
+/**
+ * CSV engine "raw": rows laid out by a {@link CsvSchema} (by default the {@code int,string,double}
+ * rows of {@link CsvFormatGenerator}), encoded by primitive column writers straight into the
+ * sink buffer, with no intermediate strings and no {@code Double.toString}.
+ * <p>
+ * Files are exactly {@code targetSize} bytes: the schema's pad column of the last row absorbs
+ * the difference.
+ * <p>
+ * With dedup, rows are laid out in blocks of {@link ContentSource#blockSize()} from the start of
+ * the file, the last row of each stretched to its boundary, and each block is, at the dedup
+ * ratio, a copy of one of the run's shared blocks of rows.
+ */
+@FormatEngine(format = "csv", engine = "raw", priority = 10)
+public class RawCsvFormatGenerator implements FormatGenerator {
+
+    private volatile CsvSchema schema = CsvSchema.DEFAULT;
+    /** Shared blocks of the last content source and schema seen; rebuilt when either changes. */
+    private volatile SharedBlocks shared;
+
+    public void setSchema(CsvSchema schema) {
+        this.schema = schema;
+    }
+
+    @Override
+    public boolean exactSize() {
+        return true;
+    }
+
+    @Override
+    public boolean blockAligned() {
+        return true;
+    }
+
+    @Override
+    public long write(FileSpec spec, ByteSink sink) throws IOException {
+        CsvSchema schema = this.schema;
+        ContentSource content = spec.content();
+        RandomGenerator rnd = spec.random();
+        long remaining = spec.targetSize();
+
+        byte[] header = schema.header();
+        if (header.length > 0 && remaining >= header.length + schema.minLastRow()) {
+            sink.write(header, 0, header.length);
+            remaining -= header.length;
+        }
+
+        int block = content.blockSize();
+        if (content instanceof ShapedContent shaped && block >= schema.minLastRow() && block <= sink.capacity()) {
+            // Rows up to the first block boundary, leaving room for the last of them
+            long gap = Math.floorMod(remaining - spec.targetSize(), block);
+            if (gap > 0 && gap < schema.minLastRow()) gap += block;
+            if (remaining >= gap + block) {
+                writeRows(schema, sink, gap, content, rnd);
+                remaining -= gap;
+                // Whole blocks, keeping the last one whole if splitting it off leaves too little for a row
+                while (remaining >= block && (remaining == block || remaining - block >= schema.minLastRow())) {
+                    int i = shaped.sharedBlock(rnd);
+                    if (i >= 0) {
+                        sink.write(sharedBlocks(shaped, schema)[i], 0, block);
+                    } else {
+                        writeRows(schema, sink, block, content, rnd);
+                    }
+                    remaining -= block;
+                }
+            }
+        }
+        writeRows(schema, sink, remaining, content, rnd);
+        return spec.targetSize();
+    }
+
+    /** Writes rows of exactly {@code n} bytes in all, the last one stretched to land on it. */
+    private static void writeRows(CsvSchema schema, ByteSink sink, long n, ContentSource content, RandomGenerator rnd)
+            throws IOException {
+        int maxRow = schema.maxRow();
+        while (n >= 2L * maxRow) {
+            ByteBuffer buf = sink.reserve(maxRow);
+            int start = buf.position();
+            schema.writeRow(buf, content, rnd);
+            n -= buf.position() - start;
+        }
+
+        // Last row: stretch the pad column so the file lands exactly on target
+        int r = (int) n;
+        if (r > 0) {
+            ByteBuffer buf = sink.reserve(r);
+            if (r >= schema.minLastRow()) {
+                schema.writeRow(buf, r, content, rnd);
+            } else {
+                // Target smaller than a single row
+                content.fill(buf, r - 1, rnd);
+                buf.put((byte) '\n');
+            }
+        }
+    }
+
+    private byte[][] sharedBlocks(ShapedContent content, CsvSchema schema) throws IOException {
+        SharedBlocks cached = shared;
+        if (cached != null && cached.content() == content && cached.schema() == schema) return cached.blocks();
+
+        int block = content.blockSize();
+        byte[][] blocks = new byte[ShapedContent.SHARED_BLOCKS][];
+        for (int i = 0; i < blocks.length; i++) {
+            ByteSink.CollectingSink sink = ByteSink.collecting(block);
+            writeRows(schema, sink, block, content, content.sharedRandom(i));
+            blocks[i] = sink.array();
+        }
+        shared = new SharedBlocks(content, schema, blocks);
+        return blocks;
+    }
+
+    private record SharedBlocks(ShapedContent content, CsvSchema schema, byte[][] blocks) {
+    }
+}
@@ -0,0 +1,54 @@
+package org.file.generator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.random.RandomGenerator;
+
+/**
+ * TXT engine "raw": the same 100 character lines as {@link TxtFormatGenerator}, filled in bulk
+ * straight into the sink buffer. The last line is shortened so the file is exactly
+ * {@code targetSize} bytes and still ends with a newline.
+ * <p>
+ * With dedup the lines restart at every block of {@link ContentSource#blockSize()}, so a shared
+ * block carries its newlines with it wherever it lands; the last line of each block is shorter.
+ */
+@FormatEngine(format = "txt", engine = "raw", priority = 10)
+public class RawTxtFormatGenerator implements FormatGenerator {
+
+    static final int LINE = 101;
+    /** Lines filled with one content call. */
+    private static final int LINES_PER_CHUNK = 40;
+
+    @Override
+    public boolean exactSize() {
+        return true;
+    }
+
+    @Override
+    public boolean blockAligned() {
+        return true;
+    }
+
+    @Override
+    public long write(FileSpec spec, ByteSink sink) throws IOException {
+        RandomGenerator rnd = spec.random();
+        long remaining = spec.targetSize();
+        int block = spec.content().blockSize();
+        int chunk = Math.min(block > 0 ? block : LINE * LINES_PER_CHUNK, sink.capacity());
+        long offset = 0;
+        while (remaining > 0) {
+            // Fill whole chunks in one call, then drop the newlines in at the end of each line
+            int len = (int) Math.min(chunk, remaining);
+            ByteBuffer buf = sink.reserve(len);
+            int start = buf.position();
+            spec.content().fill(buf, len, rnd);
+            // Lines run across chunks, or restart with each block under dedup
+            int first = block > 0 ? LINE - 1 : LINE - 1 - (int) (offset % LINE);
+            for (int nl = start + first; nl < start + len; nl += LINE) buf.put(nl, (byte) '\n');
+            if (block > 0 || len == remaining) buf.put(start + len - 1, (byte) '\n');
+            offset += len;
+            remaining -= len;
+        }
+        return spec.targetSize();
+    }
+}
@@ -0,0 +1,294 @@
+package org.file.generator;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Metrics of one run: a {@link FormatMetrics} per format plus the run's identity, printed as a
+ * summary table and written as a JSON or CSV report ({@code --report=}). JSON reports also carry
+ * wall-clock spans and raw histogram buckets, so the reports of the shards of a run can be
+ * {@link #merge merged} into exact totals and percentiles.
+ */
+public final class RunMetrics {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<String, FormatMetrics> byFormat = new LinkedHashMap<>();
+    private final long seed;
+    /** Wall clock at {@link #originNanos}, to place {@code nanoTime} spans across processes. */
+    private final long startEpochMillis;
+    private final long originNanos;
+    private String shard = Shard.ALL.toString();
+    private long wallNanos;
+    private String fanout = "flat";
+    private long directories;
+
+    public RunMetrics(long seed) {
+        this(seed, System.currentTimeMillis(), System.nanoTime());
+    }
+
+    private RunMetrics(long seed, long startEpochMillis, long originNanos) {
+        this.seed = seed;
+        this.startEpochMillis = startEpochMillis;
+        this.originNanos = originNanos;
+    }
+
+    /**
+     * Combines the JSON reports of the shards of one run: counts, bytes and histograms are added,
+     * and rates are taken over the wall-clock span from the first shard's start to the last one's end.
+     */
+    public static RunMetrics merge(List<Path> reports) throws IOException {
+        if (reports.isEmpty()) throw new IllegalArgumentException("No reports to merge");
+        List<Map<?, ?>> parsed = new ArrayList<>();
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        for (Path path : reports) {
+            Map<?, ?> report = (Map<?, ?>) Json.parse(Files.readString(path));
+            long shardStart = number(report, "startEpochMs");
+            start = Math.min(start, shardStart);
+            end = Math.max(end, shardStart + (long) (decimal(report, "wallSeconds") * 1000));
+            parsed.add(report);
+        }
+
+        // Spans of a merged run are wall-clock based: nanos = epoch millis * 1e6
+        RunMetrics merged = new RunMetrics(number(parsed.get(0), "seed"), start, start * 1_000_000);
+        TreeSet<Integer> shards = new TreeSet<>();
+        int shardCount = 0;
+        for (int r = 0; r < parsed.size(); r++) {
+            Map<?, ?> report = parsed.get(r);
+            Shard shard = Shard.parse((String) report.get("shard"));
+            if (shardCount != 0 && shard.count() != shardCount) {
+                throw new IllegalArgumentException(reports.get(r) + " is shard " + shard + ", not one of " + shardCount);
+            }
+            shardCount = shard.count();
+            if (!shards.add(shard.index())) {
+                throw new IllegalArgumentException("Shard " + shard + " given twice: " + reports.get(r));
+            }
+            Map<?, ?> layout = (Map<?, ?>) report.get("layout");
+            // Shards share one tree and each counts the directories it created, many of them the
+            // same ones: the largest count is the closest the reports get to the tree's
+            merged.setLayout((String) layout.get("fanout"), Math.max(merged.directories, number(layout, "directories")));
+            merged.merge(report);
+        }
+        StringBuilder ids = new StringBuilder();
+        for (int s : shards) ids.append(ids.isEmpty() ? "" : "+").append(s);
+        merged.shard = ids + "/" + shardCount;
+        merged.wallNanos = (end - start) * 1_000_000;
+        return merged;
+    }
+
+    private void merge(Map<?, ?> report) {
+        for (Object f : (List<?>) report.get("formats")) {
+            Map<?, ?> m = (Map<?, ?>) f;
+            FormatMetrics metrics = add((String) m.get("format"), (String) m.get("engine"));
+            long files = number(m, "files");
+            long failures = number(m, "failures");
+            // Reports written before temp bytes were counted lack the field
+            long tempBytes = m.get("tempBytes") instanceof Number n ? n.longValue() : 0;
+            if (files + failures > 0) {
+                metrics.merge(files, failures, number(m, "bytes"), number(m, "targetBytes"), tempBytes,
+                        number(m, "firstStartEpochMs") * 1_000_000, number(m, "lastEndEpochMs") * 1_000_000);
+            }
+            Map<?, ?> histograms = (Map<?, ?>) m.get("histograms");
+            mergeHistogram(metrics.latency(), (Map<?, ?>) histograms.get("latencyNanos"));
+            mergeHistogram(metrics.sizeError(), (Map<?, ?>) histograms.get("sizeErrorPpm"));
+        }
+    }
+
+    private static void mergeHistogram(Histogram histogram, Map<?, ?> json) {
+        histogram.accumulateMax(number(json, "max"));
+        for (Object b : (List<?>) json.get("buckets")) {
+            List<?> bucket = (List<?>) b;
+            histogram.add(((Number) bucket.get(0)).intValue(), ((Number) bucket.get(1)).longValue());
+        }
+    }
+
+    private static long number(Map<?, ?> json, String key) {
+        return field(json, key).longValue();
+    }
+
+    private static double decimal(Map<?, ?> json, String key) {
+        return field(json, key).doubleValue();
+    }
+
+    private static Number field(Map<?, ?> json, String key) {
+        if (!(json.get(key) instanceof Number n)) throw new IllegalArgumentException("Report lacks \"" + key + "\"");
+        return n;
+    }
+
+    /** Registers a format before the run; not thread-safe, unlike the returned metrics. */
+    public FormatMetrics add(String format, String engine) {
+        return byFormat.computeIfAbsent(format, f -> new FormatMetrics(f, engine));
+    }
+
+    public Collection<FormatMetrics> formats() {
+        return byFormat.values();
+    }
+
+    public void setWallNanos(long wallNanos) {
+        this.wallNanos = wallNanos;
+    }
+
+    /** Which {@link Shard} of the run these metrics belong to. */
+    public void setShard(Shard shard) {
+        this.shard = shard.toString();
+    }
+
+    public String shard() {
+        return shard;
+    }
+
+    /** Directory layout of the run and how many leaf directories it created. */
+    public void setLayout(String fanout, long directories) {
+        this.fanout = fanout;
+        this.directories = directories;
+    }
+
+    public void printSummary(PrintStream out) {
+        out.printf(Locale.ROOT, "%-6s %-8s %10s %8s %10s %9s %10s %10s %10s %10s%n",
+                "format", "engine", "files", "failed", "files/s", "MB/s", "p50 ms", "p99 ms", "max ms", "size err");
+        for (FormatMetrics m : byFormat.values()) {
+            out.printf(Locale.ROOT, "%-6s %-8s %10d %8d %10.1f %9.1f %10.2f %10.2f %10.2f %9.2f%%%n",
+                    m.format(), m.engine(), m.files(), m.failures(), m.filesPerSecond(), m.mbPerSecond(),
+                    millis(m.latency().percentile(50)), millis(m.latency().percentile(99)),
+                    millis(m.latency().max()), totalSizeError(m) * 100);
+        }
+        for (FormatMetrics m : byFormat.values()) {
+            if (m.tempBytes() > 0) {
+                out.printf(Locale.ROOT, "%s: %.1f MB written to temp files and read back (%.0f%% of output)%n",
+                        m.format(), m.tempBytes() / (1024.0 * 1024.0),
+                        m.bytes() > 0 ? m.tempBytes() * 100.0 / m.bytes() : 0);
+            }
+        }
+    }
+
+    /** Writes a CSV report if {@code path} ends in {@code .csv}, JSON otherwise. */
+    public void writeReport(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        try (Writer out = Files.newBufferedWriter(path)) {
+            if (path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv")) {
+                writeCsv(out);
+            } else {
+                writeJson(out);
+            }
+        }
+    }
+
+    private void writeCsv(Writer out) throws IOException {
+        out.write("format,engine,files,failures,bytes,target_bytes,temp_bytes,seconds,files_per_s,mb_per_s");
+        for (double p : PERCENTILES) out.write(",latency_p" + label(p) + "_ms");
+        out.write(",latency_max_ms,size_error_total_pct,size_error_p99_pct,size_error_max_pct,shard,fanout,directories\n");
+        for (FormatMetrics m : byFormat.values()) {
+            StringBuilder row = new StringBuilder();
+            row.append(m.format()).append(',').append(m.engine()).append(',')
+                    .append(m.files()).append(',').append(m.failures()).append(',')
+                    .append(m.bytes()).append(',').append(m.targetBytes()).append(',')
+                    .append(m.tempBytes()).append(',')
+                    .append(num(m.seconds())).append(',').append(num(m.filesPerSecond())).append(',')
+                    .append(num(m.mbPerSecond()));
+            for (double p : PERCENTILES) row.append(',').append(num(millis(m.latency().percentile(p))));
+            row.append(',').append(num(millis(m.latency().max())))
+                    .append(',').append(num(totalSizeError(m) * 100))
+                    .append(',').append(num(ppmToPercent(m.sizeError().percentile(99))))
+                    .append(',').append(num(ppmToPercent(m.sizeError().max())))
+                    .append(',').append(shard).append(',').append(fanout).append(',').append(directories)
+                    .append('\n');
+            out.write(row.toString());
+        }
+    }
+
+    private void writeJson(Writer out) throws IOException {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"seed\": ").append(seed)
+                .append(",\n  \"shard\": \"").append(shard)
+                .append("\",\n  \"startEpochMs\": ").append(startEpochMillis)
+                .append(",\n  \"wallSeconds\": ").append(num(wallNanos / 1e9))
+                .append(",\n  \"layout\": {\"fanout\": \"").append(fanout)
+                .append("\", \"directories\": ").append(directories).append('}')
+                .append(",\n  \"formats\": [");
+        String sep = "\n";
+        for (FormatMetrics m : byFormat.values()) {
+            json.append(sep).append("    {\"format\": \"").append(m.format())
+                    .append("\", \"engine\": \"").append(m.engine())
+                    .append("\", \"files\": ").append(m.files())
+                    .append(", \"failures\": ").append(m.failures())
+                    .append(", \"bytes\": ").append(m.bytes())
+                    .append(", \"targetBytes\": ").append(m.targetBytes())
+                    .append(", \"tempBytes\": ").append(m.tempBytes())
+                    .append(", \"seconds\": ").append(num(m.seconds()))
+                    .append(", \"filesPerSecond\": ").append(num(m.filesPerSecond()))
+                    .append(", \"mbPerSecond\": ").append(num(m.mbPerSecond()))
+                    .append(",\n     \"latencyMs\": {");
+            for (double p : PERCENTILES) {
+                json.append("\"p").append(label(p)).append("\": ").append(num(millis(m.latency().percentile(p)))).append(", ");
+            }
+            json.append("\"max\": ").append(num(millis(m.latency().max())))
+                    .append("},\n     \"sizeErrorPct\": {\"total\": ").append(num(totalSizeError(m) * 100))
+                    .append(", \"p99\": ").append(num(ppmToPercent(m.sizeError().percentile(99))))
+                    .append(", \"max\": ").append(num(ppmToPercent(m.sizeError().max())))
+                    .append("},\n     \"firstStartEpochMs\": ").append(epochMillis(m.firstStartNanos(), m))
+                    .append(", \"lastEndEpochMs\": ").append(epochMillis(m.lastEndNanos(), m))
+                    .append(",\n     \"histograms\": {\"latencyNanos\": ");
+            buckets(json, m.latency());
+            json.append(",\n       \"sizeErrorPpm\": ");
+            buckets(json, m.sizeError());
+            json.append("}}");
+            sep = ",\n";
+        }
+        json.append("\n  ]\n}\n");
+        out.write(json.toString());
+    }
+
+    /** Non-empty buckets as {@code {"max": n, "buckets": [[index, count], ...]}}. */
+    private static void buckets(StringBuilder json, Histogram histogram) {
+        json.append("{\"max\": ").append(histogram.max()).append(", \"buckets\": [");
+        String sep = "";
+        for (int i = 0; i < Histogram.BUCKETS; i++) {
+            long count = histogram.countAt(i);
+            if (count == 0) continue;
+            json.append(sep).append('[').append(i).append(',').append(count).append(']');
+            sep = ",";
+        }
+        json.append("]}");
+    }
+
+    /** Wall-clock time of a {@code nanoTime} reading; 0 for formats that never ran. */
+    private long epochMillis(long nanos, FormatMetrics m) {
+        if (m.files() + m.failures() == 0) return 0;
+        return startEpochMillis + Math.floorDiv(nanos - originNanos, 1_000_000);
+    }
+
+    /** Bytes written vs. bytes targeted over all files of the format, as a fraction. */
+    private static double totalSizeError(FormatMetrics m) {
+        return m.targetBytes() > 0 ? Math.abs(m.bytes() - m.targetBytes()) / (double) m.targetBytes() : 0;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static double ppmToPercent(long ppm) {
+        return ppm / 1e4;
+    }
+
+    private static String label(double percentile) {
+        return percentile == Math.rint(percentile)
+                ? Long.toString((long) percentile)
+                : Double.toString(percentile).replace(".", "");
+    }
+
+    private static String num(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
@@ -0,0 +1,32 @@
+package org.file.generator;
+
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
+
+/**
+ * Derives an independent random stream for every file from the run seed, so a run can be
+ * reproduced byte for byte and no random state is shared between worker threads.
+ */
+public final class Seeds {
+
+    private Seeds() {
+    }
+
+    /** Seed for runs without {@code --seed=}; printed so the run can be repeated. */
+    public static long randomSeed() {
+        return new SecureRandom().nextLong();
+    }
+
+    /** Random stream of file {@code index} of {@code format}, a pure function of its inputs. */
+    public static SplittableRandom forFile(long seed, String format, long index) {
+        long h = mix(seed ^ mix(format.toLowerCase().hashCode()));
+        return new SplittableRandom(mix(h + index * 0x9E3779B97F4A7C15L));
+    }
+
+    /** SplitMix64 finalizer. */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,143 @@
+package org.file.generator;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * {@link ContentSource} decorator that gives generated content a chosen compressibility and
+ * block-level duplicate ratio, for load-testing storage that compresses and deduplicates.
+ * <p>
+ * <b>Compressibility</b> {@code s} is the fraction of bytes a compressor saves. Random
+ * {@code [A-Za-z0-9]} text already compresses to about {@link #BASE_RATIO} of its size, so every
+ * {@link #SEGMENT} bytes are split into a run of one repeated byte (which costs next to nothing
+ * compressed) and random text, with the run share chosen so that
+ * {@code (1 - run) * BASE_RATIO = 1 - s}. Values below {@code 1 - BASE_RATIO} cannot be reached
+ * with text and are clamped. Fills of {@link #SHORT_FILL} bytes and more (PDF lines, paragraphs,
+ * CSV text columns) are split segment by segment, the last segment in proportion to its length.
+ * Shorter fills (spreadsheet cells) are too short for a run to pay off inside them, so each is
+ * either all run or all text, with the run odds raised by what a back-reference costs
+ * ({@link #RUN_COST}), so they average out to the same ratio.
+ * <p>
+ * <b>Dedup</b> {@code d} applies to fills that cover whole blocks of {@link #blockSize()}: each
+ * block is, with probability {@code d}, a copy of one of {@link #SHARED_BLOCKS} fixed blocks and
+ * otherwise unique, guaranteed by a random 64-bit stamp at its start. Engines that want dedup
+ * align their fills to {@link #blockSize()} relative to the start of the file; engines whose
+ * blocks are not plain filler (CSV rows) build their own shared blocks from
+ * {@link #sharedRandom(int)} and ask {@link #sharedBlock(RandomGenerator)} which one to copy.
+ */
+public final class ShapedContent implements ContentSource {
+
+    /** Deflate/zstd output size of uniformly random alphanumerics relative to the input. */
+    static final double BASE_RATIO = 0.75;
+    static final int SEGMENT = 1024;
+    /** Fills below this many bytes are all run or all text; longer ones are split per segment. */
+    static final int SHORT_FILL = 64;
+    /**
+     * Compressed bytes of one short run of the repeated byte. A run is a single back-reference
+     * whatever its length, and neighbouring runs often merge into one, hence well below a byte.
+     */
+    static final double RUN_COST = 0.5;
+    static final int SHARED_BLOCKS = 64;
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+    private static final int STAMP = 11;
+    private static final byte RUN_BYTE = 'x';
+
+    private final ContentSource base;
+    private final double runShare;
+    private final double dedup;
+    private final int blockSize;
+    private final long seed;
+    private final ByteBuffer shared;
+
+    public ShapedContent(ContentSource base, double compressibility, double dedup, int blockSize, long seed) {
+        this.base = base;
+        this.runShare = Math.max(0, Math.min(1, 1 - (1 - compressibility) / BASE_RATIO));
+        this.dedup = dedup;
+        this.blockSize = blockSize;
+        this.seed = seed;
+
+        ByteBuffer blocks = ByteBuffer.allocateDirect(dedup > 0 ? SHARED_BLOCKS * blockSize : 0);
+        SplittableRandom rnd = Seeds.forFile(seed, "dedup", 0);
+        while (blocks.hasRemaining()) shape(blocks, blockSize, rnd);
+        this.shared = blocks.asReadOnlyBuffer();
+    }
+
+    /** Parses {@code 0.5}, {@code 50%} or a compression ratio such as {@code 2:1} into the saved fraction. */
+    public static double parseCompressibility(String value) {
+        value = value.trim();
+        int colon = value.indexOf(':');
+        if (colon > 0) {
+            return 1 - Double.parseDouble(value.substring(colon + 1)) / Double.parseDouble(value.substring(0, colon));
+        }
+        return parseRatio(value);
+    }
+
+    /** Parses {@code 0.3} or {@code 30%}. */
+    public static double parseRatio(String value) {
+        value = value.trim();
+        if (value.endsWith("%")) return Double.parseDouble(value.substring(0, value.length() - 1)) / 100;
+        return Double.parseDouble(value);
+    }
+
+    /** Share of each segment that is a repeated-byte run (0 when no compressibility was asked for). */
+    public double runShare() {
+        return runShare;
+    }
+
+    /** The dedup block size, or 0 without dedup, when content has no blocks to align to. */
+    @Override
+    public int blockSize() {
+        return dedup > 0 ? blockSize : 0;
+    }
+
+    /**
+     * Which shared block the next block of a file copies, or -1 for a unique one; drawn with the
+     * dedup ratio, as for each whole block of a {@link #fill}.
+     */
+    public int sharedBlock(RandomGenerator rnd) {
+        return dedup > 0 && rnd.nextDouble() < dedup ? rnd.nextInt(SHARED_BLOCKS) : -1;
+    }
+
+    /** Randomness of shared block {@code i} of an engine's own making; the same for every file of a run. */
+    public SplittableRandom sharedRandom(int i) {
+        return Seeds.forFile(seed, "dedup", i + 1);
+    }
+
+    @Override
+    public void fill(ByteBuffer dst, int n, RandomGenerator rnd) {
+        while (dedup > 0 && n >= blockSize) {
+            int block = sharedBlock(rnd);
+            if (block >= 0) {
+                dst.put(dst.position(), shared, block * blockSize, blockSize);
+                dst.position(dst.position() + blockSize);
+            } else {
+                Ascii.putAlnum(dst, STAMP, rnd);
+                shape(dst, blockSize - STAMP, rnd);
+            }
+            n -= blockSize;
+        }
+        shape(dst, n, rnd);
+    }
+
+    private void shape(ByteBuffer dst, int n, RandomGenerator rnd) {
+        if (n < SHORT_FILL && runShare > 0) {
+            // Bytes saved per fill: run * (1 - RUN_COST / n) + (1 - run) * (1 - BASE_RATIO) = s
+            double cost = Math.min(RUN_COST / Math.max(n, 1), BASE_RATIO / 2);
+            boolean run = rnd.nextDouble() < runShare * BASE_RATIO / (BASE_RATIO - cost);
+            if (run) {
+                for (int i = 0; i < n; i++) dst.put(RUN_BYTE);
+            } else {
+                base.fill(dst, n, rnd);
+            }
+            return;
+        }
+        while (n > 0) {
+            int len = Math.min(n, SEGMENT);
+            int run = (int) Math.round(len * runShare);
+            base.fill(dst, len - run, rnd);
+            for (int i = 0; i < run; i++) dst.put(RUN_BYTE);
+            n -= len;
+        }
+    }
+}
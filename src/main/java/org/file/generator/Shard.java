@@ -0,0 +1,64 @@
+package org.file.generator;
+
+import java.nio.file.Path;
+
+/**
+ * Slice of the run owned by one process ({@code --shard=<k>/<n>}, {@code k} counting from 1):
+ * of every format's indices {@code 1..files}, shard {@code k} owns the {@code k}-th of {@code n}
+ * contiguous, near-equal ranges. Shards of the same run never overlap and together cover every
+ * index, without any coordination between the processes.
+ */
+public record Shard(int index, int count) {
+
+    /** The whole run in one process. */
+    public static final Shard ALL = new Shard(1, 1);
+
+    public Shard {
+        if (count < 1 || index < 1 || index > count) {
+            throw new IllegalArgumentException("Shard must be <k>/<n> with 1 <= k <= n: " + index + "/" + count);
+        }
+    }
+
+    public static Shard parse(String value) {
+        int slash = value.indexOf('/');
+        if (slash < 0) throw new IllegalArgumentException("Shard must look like <k>/<n>, e.g. 2/8: " + value);
+        return new Shard(Integer.parseInt(value.substring(0, slash).trim()),
+                Integer.parseInt(value.substring(slash + 1).trim()));
+    }
+
+    /** First index this shard owns among {@code 1..files}; greater than {@link #last} if none. */
+    public long first(long files) {
+        return start(files, index - 1) + 1;
+    }
+
+    /** Last index this shard owns among {@code 1..files}. */
+    public long last(long files) {
+        return start(files, index);
+    }
+
+    /** {@code floor(files * k / count)} without overflowing. */
+    private long start(long files, int k) {
+        return files / count * k + files % count * k / count;
+    }
+
+    /** File name suffix of this shard's journal and report, e.g. {@code .2-of-8}; empty for {@link #ALL}. */
+    public String suffix() {
+        return count == 1 ? "" : "." + index + "-of-" + count;
+    }
+
+    /**
+     * {@code file} with this shard's {@link #suffix} before its first extension, so every shard
+     * writes its own copy: {@code report.json} becomes {@code report.2-of-8.json}.
+     */
+    public Path qualify(Path file) {
+        if (count == 1) return file;
+        String name = file.getFileName().toString();
+        int dot = name.indexOf('.', 1);
+        return file.resolveSibling(dot < 0 ? name + suffix() : name.substring(0, dot) + suffix() + name.substring(dot));
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+}
@@ -0,0 +1,20 @@
+package org.file.generator;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Target size of each generated file ({@code --size-dist=}). Implementations must be thread-safe
+ * and draw only from the given random stream, so seeded runs keep their sizes.
+ *
+ * @see SizeDistributions
+ */
+public interface SizeDistribution {
+
+    /** Size in bytes of the next file. */
+    long sample(RandomGenerator random);
+
+    /** The distribution to use for files of {@code format}; replayed profiles keep one per extension. */
+    default SizeDistribution forFormat(String format) {
+        return this;
+    }
+}
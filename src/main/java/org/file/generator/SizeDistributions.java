@@ -0,0 +1,147 @@
+package org.file.generator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * The {@link SizeDistribution}s of {@code --size-dist=}. Every distribution is clamped to the
+ * run's size bounds; heavy-tailed ones describe sizes in bytes.
+ */
+public final class SizeDistributions {
+
+    private SizeDistributions() {
+    }
+
+    /**
+     * Parses {@code uniform}, {@code lognormal(mu,sigma)}, {@code pareto(alpha[,scale])} or
+     * {@code histogram:<file>}. {@code mu} is the mean of the log of the size in bytes, or a size
+     * such as {@code 16KB} taken as the median; {@code scale}, the smallest size, defaults to
+     * {@code min}, or 1 KB without one. Samples are clamped to {@code min..max} bytes.
+     */
+    public static SizeDistribution parse(String spec, long min, long max) throws IOException {
+        String s = spec.trim();
+        String lower = s.toLowerCase(Locale.ROOT);
+        if (lower.equals("uniform")) return uniform(min, max);
+        if (lower.startsWith("histogram:")) return histogram(Path.of(s.substring("histogram:".length()).trim()), min, max);
+
+        int open = s.indexOf('(');
+        if (open < 0 || !s.endsWith(")")) {
+            throw new IllegalArgumentException("Unknown size distribution: " + spec
+                    + " (supported: uniform, lognormal(mu,sigma), pareto(alpha[,scale]), histogram:<file>)");
+        }
+        String[] args = s.substring(open + 1, s.length() - 1).split(",");
+        switch (lower.substring(0, open).trim()) {
+            case "lognormal" -> {
+                if (args.length != 2) throw new IllegalArgumentException("lognormal needs (mu,sigma): " + spec);
+                String mu = args[0].trim();
+                double logMean = Character.isLetter(mu.charAt(mu.length() - 1))
+                        ? Math.log(parseBytes(mu))
+                        : Double.parseDouble(mu);
+                return lognormal(logMean, Double.parseDouble(args[1].trim()), min, max);
+            }
+            case "pareto" -> {
+                if (args.length < 1 || args.length > 2) throw new IllegalArgumentException("pareto needs (alpha[,scale]): " + spec);
+                long scale = args.length == 2 ? parseBytes(args[1].trim()) : min > 0 ? min : 1024;
+                return pareto(Double.parseDouble(args[0].trim()), scale, min, max);
+            }
+            default -> throw new IllegalArgumentException("Unknown size distribution: " + spec);
+        }
+    }
+
+    /** Whole KB between {@code min} and {@code max}, equally likely. */
+    public static SizeDistribution uniform(long min, long max) {
+        long kb = min / 1024;
+        long choices = (max - min) / 1024 + 1;
+        return random -> 1024 * (kb + (choices <= Integer.MAX_VALUE ? random.nextInt((int) choices) : random.nextLong(choices)));
+    }
+
+    /** {@code exp(N(mu, sigma))} bytes: mostly small files around {@code e^mu} with a long tail. */
+    public static SizeDistribution lognormal(double mu, double sigma, long min, long max) {
+        return random -> clamp(Math.exp(mu + sigma * random.nextGaussian()), min, max);
+    }
+
+    /** Pareto with shape {@code alpha} from {@code scale} bytes up; smaller {@code alpha} gives a heavier tail. */
+    public static SizeDistribution pareto(double alpha, long scale, long min, long max) {
+        if (alpha <= 0) throw new IllegalArgumentException("Pareto alpha must be positive: " + alpha);
+        return random -> clamp(scale / Math.pow(1 - random.nextDouble(), 1 / alpha), min, max);
+    }
+
+    /**
+     * Replays a size profile written by {@link SizeProfile}: each format draws from the buckets of
+     * its own extension, or from all files of the profile if the extension never occurred.
+     */
+    public static SizeDistribution histogram(Path profile, long min, long max) throws IOException {
+        Map<String, List<long[]>> buckets = SizeProfile.read(profile);
+        Replay all = new Replay(buckets.get(SizeProfile.ALL), min, max);
+        return new SizeDistribution() {
+            @Override
+            public long sample(RandomGenerator random) {
+                return all.sample(random);
+            }
+
+            @Override
+            public SizeDistribution forFormat(String format) {
+                List<long[]> own = buckets.get(format.toLowerCase(Locale.ROOT));
+                return own != null ? new Replay(own, min, max) : all;
+            }
+        };
+    }
+
+    /** Picks a bucket in proportion to its file count, then a size within it. */
+    private static final class Replay implements SizeDistribution {
+        private final long[] lower;
+        private final long[] upper;
+        private final long[] cumulative;
+        private final long min;
+        private final long max;
+
+        Replay(List<long[]> rows, long min, long max) {
+            if (rows == null || rows.isEmpty()) throw new IllegalArgumentException("Size profile has no files");
+            int n = rows.size();
+            lower = new long[n];
+            upper = new long[n];
+            cumulative = new long[n];
+            long total = 0;
+            for (int i = 0; i < n; i++) {
+                long[] row = rows.get(i);
+                lower[i] = row[0];
+                upper[i] = row[1];
+                total += row[2];
+                cumulative[i] = total;
+            }
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public long sample(RandomGenerator random) {
+            long r = random.nextLong(cumulative[cumulative.length - 1]);
+            int i = Arrays.binarySearch(cumulative, r + 1);
+            if (i < 0) i = -i - 1;
+            long size = lower[i] + random.nextLong(upper[i] - lower[i] + 1);
+            return Math.max(min, Math.min(max, size));
+        }
+    }
+
+    private static long clamp(double size, long min, long max) {
+        return Math.max(min, Math.min(max, (long) size));
+    }
+
+    /** {@code 512}, {@code 16KB}, {@code 4MB}, {@code 2GB} or {@code 1TB} in bytes. */
+    static long parseBytes(String value) {
+        String v = value.trim().toUpperCase(Locale.ROOT);
+        long unit = 1;
+        if (v.endsWith("KB")) unit = 1L << 10;
+        else if (v.endsWith("MB")) unit = 1L << 20;
+        else if (v.endsWith("GB")) unit = 1L << 30;
+        else if (v.endsWith("TB")) unit = 1L << 40;
+        else if (v.endsWith("B")) v = v.substring(0, v.length() - 1);
+        if (unit > 1) v = v.substring(0, v.length() - 2);
+        return (long) (Double.parseDouble(v.trim()) * unit);
+    }
+}
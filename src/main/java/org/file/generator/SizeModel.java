@@ -0,0 +1,31 @@
+package org.file.generator;
+
+/**
+ * Linear output-size model {@code bytes = fixedBytes + bytesPerUnit * units} of one engine, where a
+ * unit is whatever the engine repeats (a row, a paragraph, a line).
+ */
+public record SizeModel(double fixedBytes, double bytesPerUnit) {
+
+    /** Content volume that should produce a file of {@code targetSize} bytes (at least one unit). */
+    public long unitsFor(long targetSize) {
+        return Math.max(1, Math.round((targetSize - fixedBytes) / bytesPerUnit));
+    }
+
+    public long predict(long units) {
+        return Math.round(fixedBytes + bytesPerUnit * units);
+    }
+
+    /** Least-squares fit over measured {@code (units[i], bytes[i])} samples. */
+    static SizeModel fit(long[] units, long[] bytes, int n) {
+        double sx = 0, sy = 0, sxx = 0, sxy = 0;
+        for (int i = 0; i < n; i++) {
+            sx += units[i];
+            sy += bytes[i];
+            sxx += (double) units[i] * units[i];
+            sxy += (double) units[i] * bytes[i];
+        }
+        double slope = (n * sxy - sx * sy) / (n * sxx - sx * sx);
+        double intercept = (sy - slope * sx) / n;
+        return new SizeModel(Math.max(0, intercept), Math.max(1e-3, slope));
+    }
+}
@@ -0,0 +1,180 @@
+package org.file.generator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Serial;
+import java.io.Writer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * File size histogram per extension of an existing tree (the {@code profile} command), written as
+ * CSV and replayed by {@code --size-dist=histogram:<file>}.
+ * <p>
+ * The tree is walked by a fork/join pool, one task per directory, and sizes are counted in a
+ * {@link Histogram} per extension, so buckets are within 1.6% of the sizes they hold. The CSV has
+ * one {@code extension,min_bytes,max_bytes,files} row per non-empty bucket; rows of extension
+ * {@value #ALL} cover every file.
+ */
+public final class SizeProfile {
+
+    /** Extension of the rows that cover all files. */
+    public static final String ALL = "*";
+
+    private static final String HEADER = "extension,min_bytes,max_bytes,files";
+    private static final int MAX_EXTENSION = 10;
+
+    private final Map<String, Histogram> byExtension = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> bytesByExtension = new ConcurrentHashMap<>();
+    private final LongAdder directories = new LongAdder();
+    private final LongAdder unreadable = new LongAdder();
+
+    private SizeProfile() {
+    }
+
+    /** Walks {@code root} with {@code parallelism} threads. */
+    public static SizeProfile scan(Path root, int parallelism) throws IOException {
+        if (!Files.isDirectory(root)) throw new IOException("Not a directory: " + root);
+        SizeProfile profile = new SizeProfile();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(profile.new Walk(root));
+        } finally {
+            pool.shutdown();
+        }
+        return profile;
+    }
+
+    /** One directory of the walk; fork/join tasks are never serialized, so {@code dir} need not be. */
+    private final class Walk extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path dir;
+
+        Walk(Path dir) {
+            this.dir = dir;
+        }
+
+        @Override
+        protected void compute() {
+            directories.increment();
+            List<Walk> children = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (Path entry : entries) {
+                    BasicFileAttributes attrs;
+                    try {
+                        attrs = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException e) {
+                        unreadable.increment();
+                        continue;
+                    }
+                    if (attrs.isDirectory()) {
+                        children.add(new Walk(entry));
+                    } else if (attrs.isRegularFile()) {
+                        record(extension(entry.getFileName().toString()), attrs.size());
+                    }
+                }
+            } catch (IOException e) {
+                unreadable.increment();
+            }
+            invokeAll(children);
+        }
+    }
+
+    private void record(String extension, long size) {
+        byExtension.computeIfAbsent(extension, e -> new Histogram()).record(size);
+        bytesByExtension.computeIfAbsent(extension, e -> new LongAdder()).add(size);
+    }
+
+    /** Lower-case extension; empty for names without one and for long or non-alphanumeric suffixes. */
+    static String extension(String name) {
+        int dot = name.lastIndexOf('.');
+        if (dot <= 0 || dot == name.length() - 1 || name.length() - dot - 1 > MAX_EXTENSION) return "";
+        String ext = name.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return ext.chars().allMatch(Character::isLetterOrDigit) ? ext : "";
+    }
+
+    public void write(Path out) throws IOException {
+        Path parent = out.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Histogram all = new Histogram();
+        for (Histogram h : byExtension.values()) {
+            for (int i = 0; i < Histogram.BUCKETS; i++) {
+                if (h.countAt(i) > 0) all.add(i, h.countAt(i));
+            }
+        }
+        try (Writer w = Files.newBufferedWriter(out)) {
+            w.write(HEADER + "\n");
+            writeRows(w, ALL, all);
+            for (Map.Entry<String, Histogram> e : new TreeMap<>(byExtension).entrySet()) {
+                writeRows(w, e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    private static void writeRows(Writer w, String extension, Histogram h) throws IOException {
+        for (int i = 0; i < Histogram.BUCKETS; i++) {
+            long count = h.countAt(i);
+            if (count == 0) continue;
+            long lower = i == 0 ? 0 : Histogram.upperBound(i - 1) + 1;
+            w.write(extension + "," + lower + "," + Histogram.upperBound(i) + "," + count + "\n");
+        }
+    }
+
+    /** Rows of a profile by extension, each {@code {min_bytes, max_bytes, files}}. */
+    static Map<String, List<long[]>> read(Path file) throws IOException {
+        Map<String, List<long[]>> rows = new TreeMap<>();
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            String header = in.readLine();
+            if (!HEADER.equals(header)) throw new IOException("Not a size profile: " + file);
+            for (String line; (line = in.readLine()) != null; ) {
+                if (line.isBlank()) continue;
+                String[] f = line.split(",", -1);
+                if (f.length != 4) throw new IOException("Malformed size profile row in " + file + ": " + line);
+                long count = Long.parseLong(f[3].trim());
+                if (count <= 0) continue;
+                rows.computeIfAbsent(f[0].trim().toLowerCase(Locale.ROOT), e -> new ArrayList<>())
+                        .add(new long[]{Long.parseLong(f[1].trim()), Long.parseLong(f[2].trim()), count});
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed size profile " + file + ": " + e.getMessage(), e);
+        }
+        return rows;
+    }
+
+    /** Files, bytes and size percentiles of the most common extensions. */
+    public void printSummary(PrintStream out, int topExtensions) {
+        long files = 0;
+        long bytes = 0;
+        for (Histogram h : byExtension.values()) files += h.count();
+        for (LongAdder b : bytesByExtension.values()) bytes += b.sum();
+        out.printf(Locale.ROOT, "%d files, %.1f MB in %d directories (%d unreadable entries)%n",
+                files, bytes / (1024.0 * 1024.0), directories.sum(), unreadable.sum());
+        out.printf(Locale.ROOT, "%-10s %12s %8s %12s %12s %12s%n", "extension", "files", "share", "p50 bytes", "p99 bytes", "max bytes");
+        final long total = files;
+        byExtension.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Histogram> e) -> e.getValue().count()).reversed())
+                .limit(topExtensions)
+                .forEach(e -> {
+                    Histogram h = e.getValue();
+                    out.printf(Locale.ROOT, "%-10s %12d %7.1f%% %12d %12d %12d%n",
+                            e.getKey().isEmpty() ? "(none)" : e.getKey(), h.count(), 100.0 * h.count() / total,
+                            h.percentile(50), h.percentile(99), h.max());
+                });
+    }
+}
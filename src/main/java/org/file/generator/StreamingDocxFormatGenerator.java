@@ -0,0 +1,152 @@
+package org.file.generator;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.random.RandomGenerator;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * DOCX engine "stream": writes {@code word/document.xml} straight into its zip entry, one
+ * paragraph of 200 random characters at a time, through a fixed 64KB buffer.
+ * <p>
+ * Nothing is kept per paragraph, so heap use is the same for any document size, where the
+ * {@code poi} engine builds an XMLBeans object graph of the whole document first. The other
+ * package parts (content types, relationships, styles, properties) never change and are deflated
+ * once per JVM; each file copies them into its zip as is. The paragraph count comes from the
+ * calibrated {@link SizeModel}, since deflate hides the exact size until the end.
+ */
+@FormatEngine(format = "docx", engine = "stream", priority = 10)
+public class StreamingDocxFormatGenerator extends CalibratedFormatGenerator {
+
+    private static final int PARAGRAPH_CHARS = 200;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    private static final String W = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+
+    private static final byte[] DOCUMENT_START = ascii(XML_HEADER + "<w:document xmlns:w=\"" + W + "\"><w:body>");
+    private static final byte[] PARAGRAPH_START = ascii("<w:p><w:r><w:t>");
+    private static final byte[] PARAGRAPH_END = ascii("</w:t></w:r></w:p>");
+    private static final byte[] DOCUMENT_END = ascii("<w:sectPr><w:pgSz w:w=\"12240\" w:h=\"15840\"/>"
+            + "<w:pgMar w:top=\"1440\" w:right=\"1440\" w:bottom=\"1440\" w:left=\"1440\" w:header=\"720\""
+            + " w:footer=\"720\" w:gutter=\"0\"/></w:sectPr></w:body></w:document>");
+    private static final int PARAGRAPH = PARAGRAPH_START.length + PARAGRAPH_CHARS + PARAGRAPH_END.length;
+
+    /** Every part but the document, in the order they are written. */
+    private static final List<Part> PARTS = List.of(
+            Part.of("[Content_Types].xml", XML_HEADER
+                    + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                    + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                    + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                    + "<Override PartName=\"/word/document.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.wordprocessingml.document.main+xml\"/>"
+                    + "<Override PartName=\"/word/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.wordprocessingml.styles+xml\"/>"
+                    + "<Override PartName=\"/docProps/core.xml\" ContentType=\"application/vnd.openxmlformats-package.core-properties+xml\"/>"
+                    + "<Override PartName=\"/docProps/app.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.extended-properties+xml\"/>"
+                    + "</Types>"),
+            Part.of("_rels/.rels", XML_HEADER
+                    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"word/document.xml\"/>"
+                    + "<Relationship Id=\"rId2\" Type=\"http://schemas.openxmlformats.org/package/2006/relationships/metadata/core-properties\" Target=\"docProps/core.xml\"/>"
+                    + "<Relationship Id=\"rId3\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/extended-properties\" Target=\"docProps/app.xml\"/>"
+                    + "</Relationships>"),
+            Part.of("docProps/core.xml", XML_HEADER
+                    + "<cp:coreProperties xmlns:cp=\"http://schemas.openxmlformats.org/package/2006/metadata/core-properties\""
+                    + " xmlns:dc=\"http://purl.org/dc/elements/1.1/\" xmlns:dcterms=\"http://purl.org/dc/terms/\""
+                    + " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\">"
+                    + "<dcterms:created xsi:type=\"dcterms:W3CDTF\">" + Instant.ofEpochMilli(OoxmlSupport.FIXED_TIME)
+                    + "</dcterms:created></cp:coreProperties>"),
+            Part.of("docProps/app.xml", XML_HEADER
+                    + "<Properties xmlns=\"http://schemas.openxmlformats.org/officeDocument/2006/extended-properties\">"
+                    + "<Application>bulk-file-generator</Application></Properties>"),
+            Part.of("word/_rels/document.xml.rels", XML_HEADER
+                    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles\" Target=\"styles.xml\"/>"
+                    + "</Relationships>"),
+            Part.of("word/styles.xml", XML_HEADER
+                    + "<w:styles xmlns:w=\"" + W + "\"><w:docDefaults>"
+                    + "<w:rPrDefault><w:rPr><w:rFonts w:ascii=\"Calibri\" w:hAnsi=\"Calibri\"/><w:sz w:val=\"22\"/></w:rPr></w:rPrDefault>"
+                    + "<w:pPrDefault><w:pPr><w:spacing w:after=\"160\" w:line=\"259\" w:lineRule=\"auto\"/></w:pPr></w:pPrDefault>"
+                    + "</w:docDefaults><w:style w:type=\"paragraph\" w:default=\"1\" w:styleId=\"Normal\">"
+                    + "<w:name w:val=\"Normal\"/><w:qFormat/></w:style></w:styles>"));
+
+    @Override
+    protected long writeUnits(FileSpec spec, long paragraphs, ByteSink sink) throws IOException {
+        long start = sink.position();
+        try (ZipArchiveOutputStream zip = OoxmlSupport.zipStream(sink.outputStream())) {
+            // Random text gains next to nothing from slower levels
+            zip.setLevel(Deflater.BEST_SPEED);
+            for (Part part : PARTS) part.writeTo(zip);
+
+            ZipArchiveEntry document = new ZipArchiveEntry("word/document.xml");
+            // A known size lets the zip stream decide on Zip64 up front, for documents of 4GB and more
+            document.setSize(DOCUMENT_START.length + paragraphs * PARAGRAPH + DOCUMENT_END.length);
+            zip.putArchiveEntry(document);
+            writeDocument(spec, paragraphs, zip);
+            zip.closeArchiveEntry();
+        }
+        return sink.position() - start;
+    }
+
+    private static void writeDocument(FileSpec spec, long paragraphs, ZipArchiveOutputStream zip) throws IOException {
+        RandomGenerator rnd = spec.random();
+        ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+        buf.put(DOCUMENT_START);
+        for (long p = 0; p < paragraphs; p++) {
+            if (buf.remaining() < PARAGRAPH) {
+                zip.write(buf.array(), 0, buf.position());
+                buf.clear();
+            }
+            buf.put(PARAGRAPH_START);
+            spec.content().fill(buf, PARAGRAPH_CHARS, rnd);
+            buf.put(PARAGRAPH_END);
+        }
+        zip.write(buf.array(), 0, buf.position());
+        zip.write(DOCUMENT_END);
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /** A constant part, deflated once and copied into every package without recompressing it. */
+    private record Part(String name, byte[] deflated, long size, long crc) {
+
+        static Part of(String name, String xml) {
+            byte[] data = xml.getBytes(StandardCharsets.UTF_8);
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            // Zip entries hold raw deflate data, without the zlib header
+            Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+            try {
+                deflater.setInput(data);
+                deflater.finish();
+                ByteArrayOutputStream out = new ByteArrayOutputStream(data.length);
+                byte[] chunk = new byte[4096];
+                while (!deflater.finished()) out.write(chunk, 0, deflater.deflate(chunk));
+                return new Part(name, out.toByteArray(), data.length, crc.getValue());
+            } finally {
+                deflater.end();
+            }
+        }
+
+        void writeTo(ZipArchiveOutputStream zip) throws IOException {
+            ZipArchiveEntry entry = new ZipArchiveEntry(name);
+            entry.setMethod(ZipEntry.DEFLATED);
+            entry.setSize(size);
+            entry.setCompressedSize(deflated.length);
+            entry.setCrc(crc);
+            // Raw entries bypass putArchiveEntry, so pin the time here
+            entry.setTime(OoxmlSupport.FIXED_TIME);
+            zip.addRawArchiveEntry(entry, new ByteArrayInputStream(deflated));
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package org.file.generator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.random.RandomGenerator;
+
+/**
+ * PDF engine "stream": writes PDF objects straight to the sink as each page fills up.
+ * <p>
+ * Only the current page's content stream is buffered. All pages share one Helvetica resource and
+ * every page is a single {@code BT/ET} text object using {@code TL}/{@code T*} for line advance.
+ * Content streams are stored unfiltered and every page but the last holds the same number of
+ * lines, so the size and offset of every object follow from the line count alone: the layout is
+ * settled before the first byte is written, the xref offsets are recomputed when the xref is
+ * written, and nothing is recorded per page. A comment before the xref pads the file to exactly
+ * {@code targetSize} (targets below a one-page document come out at the minimum size).
+ * <p>
+ * Object layout: 1 catalog, 2 page tree root, 3 font, then the page tree's inner nodes (at most
+ * {@value #FANOUT} kids each, level by level from the top), then a content stream and a page
+ * object per page. Offsets in the xref are 10 digits, which caps a file just short of 10GB.
+ */
+@FormatEngine(format = "pdf", engine = "stream", priority = 10)
+public class StreamingPdfFormatGenerator implements FormatGenerator {
+
+    private static final int LINE_CHARS = 200;
+    private static final int LINES_PER_PAGE = 44;
+    // "(" + text + ") Tj T*\n"
+    private static final int LINE = 1 + LINE_CHARS + 8;
+    private static final int FANOUT = 32;
+    private static final int PADDING_LINE = 200;
+    /** Largest offset a 10-digit xref entry holds. */
+    private static final long MAX_SIZE = 9_999_999_999L;
+    // Random.nextLong() | Long.MIN_VALUE always has 16 hex digits
+    private static final int ID_CHARS = 32;
+
+    private static final String HEADER = "%PDF-1.4\n%âãÏÓ\n";
+    private static final String OBJ = " 0 obj\n";
+    private static final String CATALOG = "<< /Type /Catalog /Pages 2 0 R >>\nendobj\n";
+    private static final String FONT = "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>\nendobj\n";
+    private static final String NODE_START = "<< /Type /Pages";
+    private static final String NODE_PARENT = " /Parent ";
+    private static final String NODE_PARENT_END = " 0 R";
+    private static final String NODE_KIDS = " /Kids [";
+    private static final String KID = " 0 R ";
+    private static final String NODE_COUNT = "] /Count ";
+    private static final String NODE_END = " >>\nendobj\n";
+    private static final String STREAM_START = "<< /Length ";
+    private static final String STREAM_DATA = " >>\nstream\n";
+    private static final String STREAM_END = "\nendstream\nendobj\n";
+    private static final String PAGE_START = "BT\n/F1 12 Tf\n15 TL\n50 700 Td\n";
+    private static final String PAGE_END = "ET";
+    private static final String PAGE_OBJECT = "<< /Type /Page /Parent ";
+    private static final String PAGE_RESOURCES = " 0 R /MediaBox [0 0 612 792] /Resources << /Font << /F1 3 0 R >> >> /Contents ";
+    private static final String PAGE_OBJECT_END = " 0 R >>\nendobj\n";
+    private static final String XREF = "xref\n0 ";
+    private static final String TRAILER = "trailer\n<< /Size ";
+    private static final String TRAILER_ID = " /Root 1 0 R /ID [<";
+    private static final String TRAILER_ID_SEPARATOR = "> <";
+    private static final String TRAILER_END = ">] >>\nstartxref\n";
+    private static final String EOF = "\n%%EOF\n";
+
+    @Override
+    public long write(FileSpec spec, ByteSink sink) throws IOException {
+        if (spec.targetSize() > MAX_SIZE) {
+            throw new IllegalArgumentException("PDF xref offsets hold 10 digits; target too large: " + spec.targetSize());
+        }
+        return new Writer(spec, sink).write();
+    }
+
+    /** Receives object offsets in object number order. */
+    @FunctionalInterface
+    private interface Offsets<X extends Exception> {
+        void accept(long offset) throws X;
+    }
+
+    /**
+     * Object numbers and sizes of a document of {@code lines} text lines, all derived from the
+     * line count; the page tree costs one small array per level.
+     */
+    private static final class Layout {
+        final long lines;
+        final long pages;
+        /** Items per tree level: pages on level 0, then inner nodes, the root alone on top. */
+        private final long[] width;
+        /** First object number of each node level. */
+        private final long[] first;
+        private final long firstPage;
+
+        Layout(long lines) {
+            this.lines = lines;
+            this.pages = Math.max(1, (lines + LINES_PER_PAGE - 1) / LINES_PER_PAGE);
+            int height = 1;
+            for (long n = pages; n > FANOUT; n = (n + FANOUT - 1) / FANOUT) height++;
+            width = new long[height + 1];
+            width[0] = pages;
+            for (int l = 1; l <= height; l++) width[l] = (width[l - 1] + FANOUT - 1) / FANOUT;
+            first = new long[height + 1];
+            first[height] = 2;
+            long next = 4;
+            for (int l = height - 1; l >= 1; l--) {
+                first[l] = next;
+                next += width[l];
+            }
+            firstPage = next;
+        }
+
+        /** The largest layout whose file fits in {@code target} bytes, or the one-page minimum. */
+        static Layout fit(long target) {
+            Layout min = new Layout(0);
+            if (!min.fits(target)) return min;
+            // Every line adds more than LINE bytes, so hi never fits
+            long lo = 0;
+            long hi = target / LINE + 1;
+            while (hi - lo > 1) {
+                long mid = (lo + hi) >>> 1;
+                if (new Layout(mid).fits(target)) lo = mid;
+                else hi = mid;
+            }
+            return new Layout(lo);
+        }
+
+        boolean fits(long target) {
+            return xrefOffset(target) >= body();
+        }
+
+        int height() {
+            return width.length - 1;
+        }
+
+        int levelWidth(int level) {
+            return (int) width[level];
+        }
+
+        long node(int level, long i) {
+            return first[level] + (level == height() ? 0 : i);
+        }
+
+        /** Object number of item {@code i} of a level: page objects on level 0, nodes above. */
+        long item(int level, long i) {
+            return level == 0 ? contents(i) + 1 : node(level, i);
+        }
+
+        long parent(int level, long i) {
+            return node(level + 1, i / FANOUT);
+        }
+
+        long kidsFrom(long i) {
+            return i * FANOUT;
+        }
+
+        long kidsTo(int level, long i) {
+            return Math.min((i + 1) * FANOUT, width[level - 1]);
+        }
+
+        long pagesUnder(int level, long i) {
+            long span = 1;
+            for (int l = 0; l < level; l++) span *= FANOUT;
+            return Math.min((i + 1) * span, pages) - i * span;
+        }
+
+        long contents(long page) {
+            return firstPage + 2 * page;
+        }
+
+        int linesOn(long page) {
+            return (int) (page < pages - 1 ? LINES_PER_PAGE : lines - (pages - 1) * LINES_PER_PAGE);
+        }
+
+        long entries() {
+            return firstPage + 2 * pages;
+        }
+
+        /** Walks objects 1 and up, numbered in file order; returns where the last page ends. */
+        <X extends Exception> long walk(Offsets<X> offsets) throws X {
+            long pos = HEADER.length();
+            offsets.accept(pos);
+            pos += 1 + OBJ.length() + CATALOG.length();
+            offsets.accept(pos);
+            pos += nodeSize(height(), 0);
+            offsets.accept(pos);
+            pos += 1 + OBJ.length() + FONT.length();
+            for (int l = height() - 1; l >= 1; l--) {
+                for (long i = 0; i < width[l]; i++) {
+                    offsets.accept(pos);
+                    pos += nodeSize(l, i);
+                }
+            }
+            for (long p = 0; p < pages; p++) {
+                long contents = contents(p);
+                long length = PAGE_START.length() + (long) linesOn(p) * LINE + PAGE_END.length();
+                offsets.accept(pos);
+                pos += Ascii.digits(contents) + OBJ.length() + STREAM_START.length() + Ascii.digits(length)
+                        + STREAM_DATA.length() + length + STREAM_END.length();
+                offsets.accept(pos);
+                pos += Ascii.digits(contents + 1) + OBJ.length() + PAGE_OBJECT.length() + Ascii.digits(parent(0, p))
+                        + PAGE_RESOURCES.length() + Ascii.digits(contents) + PAGE_OBJECT_END.length();
+            }
+            return pos;
+        }
+
+        long body() {
+            return walk(offset -> { });
+        }
+
+        private long nodeSize(int level, long i) {
+            long size = Ascii.digits(node(level, i)) + OBJ.length() + NODE_START.length() + NODE_KIDS.length()
+                    + NODE_COUNT.length() + Ascii.digits(pagesUnder(level, i)) + NODE_END.length();
+            if (level < height()) size += NODE_PARENT.length() + Ascii.digits(parent(level, i)) + NODE_PARENT_END.length();
+            for (long k = kidsFrom(i); k < kidsTo(level, i); k++) size += Ascii.digits(item(level - 1, k)) + KID.length();
+            return size;
+        }
+
+        private long xrefSize() {
+            return XREF.length() + Ascii.digits(entries()) + 1 + 20 * entries();
+        }
+
+        /**
+         * Where the xref starts in a file of exactly {@code target} bytes, or one byte short when
+         * the trailer's own digits of the offset make the exact size unreachable; negative if the
+         * xref and trailer alone do not fit.
+         */
+        long xrefOffset(long target) {
+            long room = target - xrefSize() - TRAILER.length() - Ascii.digits(entries()) - TRAILER_ID.length()
+                    - TRAILER_ID_SEPARATOR.length() - 2 * ID_CHARS - TRAILER_END.length() - EOF.length();
+            if (room <= 0) return -1;
+            long offset = room - Ascii.digits(room);
+            while (offset + Ascii.digits(offset) > room) offset--;
+            return offset;
+        }
+    }
+
+    private static final class Writer {
+        private final FileSpec spec;
+        private final ByteSink sink;
+        private final long start;
+        private final ByteBuffer page = ByteBuffer.allocate(PAGE_START.length() + LINES_PER_PAGE * LINE + PAGE_END.length());
+
+        Writer(FileSpec spec, ByteSink sink) {
+            this.spec = spec;
+            this.sink = sink;
+            this.start = sink.position();
+        }
+
+        long write() throws IOException {
+            RandomGenerator rnd = spec.random();
+            Layout layout = Layout.fit(spec.targetSize());
+
+            put(HEADER);
+            put("1" + OBJ + CATALOG);
+            writeNode(layout, layout.height(), 0);
+            put("3" + OBJ + FONT);
+            for (int l = layout.height() - 1; l >= 1; l--) {
+                for (int i = 0; i < layout.levelWidth(l); i++) writeNode(layout, l, i);
+            }
+            for (long p = 0; p < layout.pages; p++) writePage(layout, p, rnd);
+
+            // Pad with comments so the xref and trailer end exactly on target
+            writePadding(layout.xrefOffset(spec.targetSize()) - written());
+
+            long xref = written();
+            long entries = layout.entries();
+            put(XREF + entries + "\n");
+            put("0000000000 65535 f \n");
+            layout.walk(offset -> {
+                ByteBuffer buf = sink.reserve(20);
+                Ascii.putLong(buf, offset, 10);
+                Ascii.put(buf, " 00000 n \n");
+            });
+
+            String id = Long.toHexString(rnd.nextLong() | Long.MIN_VALUE) + Long.toHexString(rnd.nextLong() | Long.MIN_VALUE);
+            put(TRAILER + entries + TRAILER_ID + id + TRAILER_ID_SEPARATOR + id + TRAILER_END + xref + EOF);
+            return written();
+        }
+
+        private long written() {
+            return sink.position() - start;
+        }
+
+        private void writeNode(Layout layout, int level, long i) throws IOException {
+            put(layout.node(level, i) + OBJ + NODE_START);
+            if (level < layout.height()) put(NODE_PARENT + layout.parent(level, i) + NODE_PARENT_END);
+            put(NODE_KIDS);
+            for (long k = layout.kidsFrom(i); k < layout.kidsTo(level, i); k++) put(layout.item(level - 1, k) + KID);
+            put(NODE_COUNT + layout.pagesUnder(level, i) + NODE_END);
+        }
+
+        private void writePage(Layout layout, long p, RandomGenerator rnd) throws IOException {
+            page.clear();
+            Ascii.put(page, PAGE_START);
+            for (int line = layout.linesOn(p); line > 0; line--) {
+                page.put((byte) '(');
+                spec.content().fill(page, LINE_CHARS, rnd);
+                Ascii.put(page, ") Tj T*\n");
+            }
+            Ascii.put(page, PAGE_END);
+            page.flip();
+
+            long contents = layout.contents(p);
+            put(contents + OBJ + STREAM_START + page.remaining() + STREAM_DATA);
+            sink.write(page);
+            put(STREAM_END);
+            put((contents + 1) + OBJ + PAGE_OBJECT + layout.parent(0, p) + PAGE_RESOURCES + contents + PAGE_OBJECT_END);
+        }
+
+        private void writePadding(long pad) throws IOException {
+            while (pad > 0) {
+                int n = (int) Math.min(pad, PADDING_LINE);
+                ByteBuffer buf = sink.reserve(n);
+                if (n == 1) {
+                    buf.put((byte) '\n');
+                } else {
+                    buf.put((byte) '%');
+                    for (int i = 2; i < n; i++) buf.put((byte) ' ');
+                    buf.put((byte) '\n');
+                }
+                pad -= n;
+            }
+        }
+
+        private void put(String s) throws IOException {
+            int off = 0;
+            while (off < s.length()) {
+                int n = Math.min(s.length() - off, sink.capacity());
+                Ascii.put(sink.reserve(n), s, off, n);
+                off += n;
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.file.generator;
+
+import java.nio.file.Path;
+
+/**
+ * How the {@code xlsx:poi} engine buffers sheet data. {@link org.apache.poi.xssf.streaming.SXSSFWorkbook}
+ * keeps {@code window} rows in memory and flushes older ones to a temporary file, which it copies
+ * into the zip when the workbook is written, so every row is written twice. Compressed temp files
+ * cut that extra disk traffic to a fraction at some CPU cost; files of up to {@code inMemoryMaxSize}
+ * skip the temp file altogether and keep their sheet data in the heap. The policy never changes
+ * the bytes of a file, only where its rows wait.
+ *
+ * @param window            rows kept in memory per sheet before older ones are flushed
+ * @param compressTempFiles gzip the temp files
+ * @param tempDir           directory of the temp files, or {@code null} for POI's default
+ *                          ({@code poifiles} under {@code java.io.tmpdir})
+ * @param inMemoryMaxSize   largest target size in bytes whose sheet data stays in memory; 0 for none
+ */
+public record SxssfPolicy(int window, boolean compressTempFiles, Path tempDir, long inMemoryMaxSize) {
+
+    /** 100 rows, compressed temp files in POI's directory, sheets of files up to 256KB in memory. */
+    public static final SxssfPolicy DEFAULT = new SxssfPolicy(100, true, null, 256 * 1024);
+
+    public SxssfPolicy {
+        if (window < 1) throw new IllegalArgumentException("XLSX row window must be at least 1: " + window);
+        if (inMemoryMaxSize < 0) {
+            throw new IllegalArgumentException("XLSX in-memory size must not be negative: " + inMemoryMaxSize);
+        }
+    }
+
+    public SxssfPolicy withWindow(int window) {
+        return new SxssfPolicy(window, compressTempFiles, tempDir, inMemoryMaxSize);
+    }
+
+    /** {@code gzip} compresses the temp files, {@code plain} does not. */
+    public SxssfPolicy withTempFiles(String mode) {
+        return switch (mode.trim().toLowerCase()) {
+            case "gzip" -> new SxssfPolicy(window, true, tempDir, inMemoryMaxSize);
+            case "plain" -> new SxssfPolicy(window, false, tempDir, inMemoryMaxSize);
+            default -> throw new IllegalArgumentException("Unknown XLSX temp file mode (gzip, plain): " + mode);
+        };
+    }
+
+    public SxssfPolicy withTempDir(Path tempDir) {
+        return new SxssfPolicy(window, compressTempFiles, tempDir, inMemoryMaxSize);
+    }
+
+    public SxssfPolicy withInMemoryMaxSize(long inMemoryMaxSize) {
+        return new SxssfPolicy(window, compressTempFiles, tempDir, inMemoryMaxSize);
+    }
+
+    /** Whether a file of {@code targetSize} bytes keeps its sheet data in memory. */
+    boolean inMemory(long targetSize) {
+        return targetSize > 0 && targetSize <= inMemoryMaxSize;
+    }
+}
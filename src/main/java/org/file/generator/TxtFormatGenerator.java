@@ -0,0 +1,28 @@
+package org.file.generator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * TXT engine "writer": 100 character random lines through a {@link BufferedWriter}.
+ */
+@FormatEngine(format = "txt", engine = "writer")
+public class TxtFormatGenerator implements FormatGenerator {
+
+    @Override
+    public long write(FileSpec spec, ByteSink sink) throws IOException {
+        long start = sink.position();
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(sink.outputStream(), StandardCharsets.UTF_8))) {
+            long written = 0;
+            while (written < spec.targetSize()) {
+                String line = spec.content().text(100, spec.random()) + "\n";
+                writer.write(line);
+                written += line.getBytes().length;
+            }
+        }
+        return sink.position() - start;
+    }
+}
@@ -0,0 +1,118 @@
+package org.file.generator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * I/O stage of {@code --io=pipeline}: generator threads fill buffers from a {@link BufferPool}
+ * and hand each full one over instead of writing it, then carry on with the next buffer while a
+ * few dedicated I/O threads write it out with positional {@link FileChannel} writes and return it
+ * to the pool. CPU and disk work overlap even within one file. The hand-over queue holds at most
+ * {@code depth} buffers; a full queue blocks the generators.
+ */
+public final class WriteStage implements Closeable {
+
+    private record Write(PipelinedSink sink, ByteBuffer buffer, long position) {
+    }
+
+    private static final Write STOP = new Write(null, null, 0);
+    /** Stands in for the buffer while a sink waits for its next one. */
+    private static final ByteBuffer NONE = ByteBuffer.allocate(0);
+
+    private final BufferPool pool;
+    private final BlockingQueue<Write> queue;
+    private final Thread[] threads;
+
+    public WriteStage(BufferPool pool, int threads, int depth) {
+        this.pool = pool;
+        this.queue = new ArrayBlockingQueue<>(depth);
+        this.threads = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            this.threads[i] = Thread.ofPlatform().daemon().name("io-" + i).start(this::writeLoop);
+        }
+    }
+
+    /** Sink whose buffers are written to {@code channel} by this stage; closing it waits for them. */
+    public ByteSink open(FileChannel channel) throws IOException {
+        return new PipelinedSink(channel);
+    }
+
+    private void writeLoop() {
+        try {
+            for (Write w; (w = queue.take()) != STOP; ) {
+                try {
+                    long position = w.position();
+                    while (w.buffer().hasRemaining()) position += w.sink().channel.write(w.buffer(), position);
+                } catch (IOException e) {
+                    w.sink().failure = e;
+                } finally {
+                    pool.release(w.buffer());
+                    w.sink().written.release();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Stops the I/O threads once everything queued has been written. */
+    @Override
+    public void close() throws IOException {
+        try {
+            for (int i = 0; i < threads.length; i++) queue.put(STOP);
+            for (Thread t : threads) t.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while stopping the I/O stage");
+        }
+    }
+
+    private final class PipelinedSink extends ByteSink {
+        private final FileChannel channel;
+        /** One permit per buffer the I/O stage has finished with. */
+        private final Semaphore written = new Semaphore(0);
+        private int queued;
+        private volatile IOException failure;
+
+        PipelinedSink(FileChannel channel) throws IOException {
+            super(pool.acquire());
+            this.channel = channel;
+        }
+
+        @Override
+        protected void drain(ByteBuffer buf) throws IOException {
+            if (failure != null) throw failure;
+            if (!buf.hasRemaining()) return;
+            try {
+                // position() is the file offset of buf's first byte: the base class counts it as drained afterwards
+                queue.put(new Write(this, buf, position()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while queueing a write");
+            }
+            queued++;
+            buffer = NONE;
+            buffer = pool.acquire();
+        }
+
+        @Override
+        protected void closeTarget() throws IOException {
+            try {
+                written.acquire(queued);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for writes");
+            } finally {
+                if (buffer != NONE) pool.release(buffer);
+                channel.close();
+            }
+            if (failure != null) throw failure;
+        }
+    }
+}
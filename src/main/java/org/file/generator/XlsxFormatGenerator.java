@@ -0,0 +1,169 @@
+package org.file.generator;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.util.TempFile;
+import org.apache.poi.xssf.streaming.GZIPSheetDataWriter;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.streaming.SheetDataWriter;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * XLSX engine "poi": streaming {@link SXSSFWorkbook} with ten 20 character cells per row.
+ * The row count comes from the calibrated {@link SizeModel}; rows beyond a worksheet's limit go
+ * on to further sheets, so multi-GB workbooks stream with the same bounded row window.
+ * <p>
+ * Rows leaving the window wait in temp files as the {@link SxssfPolicy} says, or in memory for
+ * small files. Temp files are deleted when the file is done, whether it succeeded or not, and
+ * their size is counted in {@link #tempBytes()}.
+ */
+@FormatEngine(format = "xlsx", engine = "poi")
+public class XlsxFormatGenerator extends CalibratedFormatGenerator {
+
+    /** Row limit of a single worksheet. */
+    private static final long MAX_ROWS = 1_048_576;
+
+    private volatile SxssfPolicy policy = SxssfPolicy.DEFAULT;
+    private final LongAdder tempBytes = new LongAdder();
+
+    public void setPolicy(SxssfPolicy policy) {
+        this.policy = policy;
+    }
+
+    public SxssfPolicy policy() {
+        return policy;
+    }
+
+    @Override
+    public long tempBytes() {
+        return tempBytes.sum();
+    }
+
+    @Override
+    protected long writeUnits(FileSpec spec, long rows, ByteSink sink) throws IOException {
+        long start = sink.position();
+        ReproducibleWorkbook wb = new ReproducibleWorkbook(policy, policy.inMemory(spec.targetSize()));
+        try (wb) {
+            OoxmlSupport.pinCreated(wb.getXSSFWorkbook().getProperties());
+            Sheet sheet = null;
+            int rowNum = 0;
+            for (long r = 0; r < rows; r++) {
+                if (r % MAX_ROWS == 0) {
+                    sheet = wb.createSheet("Sheet" + (r / MAX_ROWS + 1));
+                    rowNum = 0;
+                }
+                Row row = sheet.createRow(rowNum++);
+                for (int i = 0; i < 10; i++) row.createCell(i).setCellValue(spec.content().text(20, spec.random()));
+            }
+            try (OutputStream out = sink.outputStream()) {
+                wb.write(out);
+            }
+        } finally {
+            tempBytes.add(wb.discardTempFiles());
+        }
+        return sink.position() - start;
+    }
+
+    private static final class ReproducibleWorkbook extends SXSSFWorkbook {
+        private final SxssfPolicy policy;
+        private final boolean inMemory;
+        private final List<File> tempFiles = new ArrayList<>();
+
+        ReproducibleWorkbook(SxssfPolicy policy, boolean inMemory) {
+            super(null, policy.window(), policy.compressTempFiles());
+            this.policy = policy;
+            this.inMemory = inMemory;
+        }
+
+        @Override
+        protected ZipArchiveOutputStream createArchiveOutputStream(OutputStream out) {
+            return OoxmlSupport.zipStream(out);
+        }
+
+        @Override
+        protected SheetDataWriter createSheetDataWriter() throws IOException {
+            if (inMemory) return MemorySheetWriter.create();
+            // The writers create their temp file in their constructor, before any field of an
+            // anonymous subclass is set; only the enclosing workbook is already reachable there
+            return policy.compressTempFiles()
+                    ? new GZIPSheetDataWriter() {
+                        @Override
+                        public File createTempFile() throws IOException {
+                            return newTempFile(".xml.gz");
+                        }
+                    }
+                    : new SheetDataWriter() {
+                        @Override
+                        public File createTempFile() throws IOException {
+                            return newTempFile(".xml");
+                        }
+                    };
+        }
+
+        private File newTempFile(String suffix) throws IOException {
+            File file;
+            if (policy.tempDir() != null) {
+                file = Files.createTempFile(Files.createDirectories(policy.tempDir()), "sxssf-sheet", suffix).toFile();
+            } else {
+                file = TempFile.createTempFile("sxssf-sheet", suffix);
+            }
+            tempFiles.add(file);
+            return file;
+        }
+
+        /** Deletes every temp file of the workbook; returns the bytes they held on disk. */
+        long discardTempFiles() {
+            long bytes = 0;
+            for (File file : tempFiles) bytes += file.length();
+            // dispose() closes and deletes each sheet's temp file; in-memory sheets have none to delete
+            if (!inMemory) dispose();
+            // Also covers a file whose writer failed before its sheet was registered
+            for (File file : tempFiles) file.delete();
+            return bytes;
+        }
+    }
+
+    /** Sheet data in a heap buffer, read back when the workbook is written. */
+    private static final class MemorySheetWriter extends SheetDataWriter {
+        private final ByteArrayOutputStream buffer;
+        private final Writer writer;
+
+        private MemorySheetWriter(ByteArrayOutputStream buffer, Writer writer) throws IOException {
+            super(writer);
+            this.buffer = buffer;
+            this.writer = writer;
+        }
+
+        static MemorySheetWriter create() throws IOException {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+            return new MemorySheetWriter(buffer, new BufferedWriter(new OutputStreamWriter(buffer, StandardCharsets.UTF_8)));
+        }
+
+        /** Keeps the buffer readable; there is no file to close. */
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public InputStream getWorksheetXMLInputStream() throws IOException {
+            writer.flush();
+            return new ByteArrayInputStream(buffer.toByteArray());
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.file.generator;
+
+import com.github.luben.zstd.Zstd;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks {@code --compressibility} and {@code --dedup} by compressing what every format's default
+ * engine writes. Plain formats are measured as written; for XLSX and DOCX, which deflate their
+ * parts themselves, and for PDF, whose text sits between operators, the measure is the text the
+ * engine took from its {@link ContentSource}.
+ */
+class CompressibilityTest {
+
+    private static final long SIZE = 2 * 1024 * 1024;
+    /** Enough blocks that the share of duplicates is within tolerance of its expectation. */
+    private static final long DEDUP_SIZE = 8 * 1024 * 1024;
+    private static final double TOLERANCE = 0.04;
+    private static final long SEED = 42;
+
+    private static final Pattern PDF_TEXT = Pattern.compile("\\(([^)]*)\\) Tj");
+    private static final Pattern XLSX_TEXT = Pattern.compile("<t(?: [^>]*)?>([^<]*)</t>");
+    private static final Pattern DOCX_TEXT = Pattern.compile("<w:t(?: [^>]*)?>([^<]*)</w:t>");
+
+    static Stream<String> formats() {
+        return Stream.of("txt", "csv", "xlsx", "docx", "pdf");
+    }
+
+    static Stream<Arguments> formatsAndRatios() {
+        return formats()
+                .flatMap(format -> Stream.of(0.5, 0.8).map(ratio -> Arguments.of(format, ratio)));
+    }
+
+    @ParameterizedTest(name = "{0} at {1}")
+    @MethodSource("formatsAndRatios")
+    void compressibilityHitsTarget(String format, double compressibility) throws IOException {
+        ContentSource content = new ShapedContent(ContentSource.PRNG, compressibility, 0,
+                ShapedContent.DEFAULT_BLOCK_SIZE, SEED);
+        byte[] text = payload(format, generate(format, content));
+
+        assertEquals(compressibility, deflateSaving(text), TOLERANCE, format + " under deflate");
+        assertEquals(compressibility, zstdSaving(text), TOLERANCE, format + " under zstd");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("formats")
+    void dedupLeavesCompressibilityAlone(String format) throws IOException {
+        ContentSource content = new ShapedContent(ContentSource.PRNG, 0.5, 0.3,
+                ShapedContent.DEFAULT_BLOCK_SIZE, SEED);
+        byte[] text = payload(format, generate(format, content));
+
+        // Shared blocks are shaped like unique ones, so dedup must not cost compressibility
+        assertTrue(deflateSaving(text) >= 0.5 - TOLERANCE, format + " under deflate");
+        assertTrue(zstdSaving(text) >= 0.5 - TOLERANCE, format + " under zstd");
+    }
+
+    @ParameterizedTest(name = "{0} at {1} of {2} byte blocks")
+    @CsvSource({"txt, 0.3, 4096", "txt, 0.7, 4096", "txt, 0.5, 8192",
+            "csv, 0.3, 4096", "csv, 0.7, 4096", "csv, 0.5, 8192"})
+    void dedupHitsTargetForBlockAlignedFormats(String format, double dedup, int block) throws IOException {
+        byte[] file = generate(format, new ShapedContent(ContentSource.PRNG, 0, dedup, block, SEED), DEDUP_SIZE);
+        int blocks = file.length / block;
+        Set<String> seen = new HashSet<>();
+        int duplicates = 0;
+        for (int b = 0; b < blocks; b++) {
+            if (!seen.add(new String(file, b * block, block, StandardCharsets.ISO_8859_1))) duplicates++;
+        }
+        // The first copy of each shared block drawn is not a duplicate yet
+        double draws = dedup * blocks;
+        double firsts = ShapedContent.SHARED_BLOCKS * (1 - Math.pow(1 - 1.0 / ShapedContent.SHARED_BLOCKS, draws));
+        assertEquals((draws - firsts) / blocks, duplicates / (double) blocks, TOLERANCE);
+    }
+
+    @ParameterizedTest(name = "dedup {0}")
+    @ValueSource(doubles = {0, 0.3})
+    void txtLinesAreHundredCharacters(double dedup) throws IOException {
+        byte[] file = generate("txt", new ShapedContent(ContentSource.PRNG, 0.5, dedup,
+                ShapedContent.DEFAULT_BLOCK_SIZE, SEED));
+        assertEquals('\n', file[file.length - 1]);
+        int start = 0;
+        for (int i = 0; i < file.length; i++) {
+            if (file[i] != '\n') continue;
+            int length = i - start;
+            // Lines restart with every block under dedup; otherwise only the last line is short
+            if (dedup > 0 || i < file.length - 1) {
+                assertTrue(dedup > 0 ? length <= 100 : length == 100, "line of " + length + " at " + start);
+            }
+            start = i + 1;
+        }
+    }
+
+    @ParameterizedTest(name = "{0} byte fills")
+    @ValueSource(ints = {20, 100, 300, 1000})
+    void fillsOfAnyLengthHitTarget(int length) {
+        ShapedContent content = new ShapedContent(ContentSource.PRNG, 0.5, 0, ShapedContent.DEFAULT_BLOCK_SIZE, SEED);
+        SplittableRandom rnd = new SplittableRandom(SEED);
+        // Fills one per line, like CSV columns: whole-fill runs below SHORT_FILL, split segments above
+        ByteBuffer buf = ByteBuffer.allocate((int) SIZE + length + 1);
+        while (buf.position() < SIZE) {
+            content.fill(buf, length, rnd);
+            buf.put((byte) '\n');
+        }
+        byte[] text = Arrays.copyOf(buf.array(), buf.position());
+
+        assertEquals(0.5, deflateSaving(text), TOLERANCE, "deflate");
+        assertEquals(0.5, zstdSaving(text), TOLERANCE, "zstd");
+    }
+
+    /** A file of {@link #SIZE} bytes from the format's default engine; CSV gets text-only columns. */
+    private static byte[] generate(String format, ContentSource content) throws IOException {
+        return generate(format, content, SIZE);
+    }
+
+    private static byte[] generate(String format, ContentSource content, long size) throws IOException {
+        FormatGenerator engine = FormatGenerators.load().select(format, Map.of());
+        if (engine instanceof RawCsvFormatGenerator csv) csv.setSchema(CsvSchema.parse("a:str(200),b:str(200)"));
+        ByteSink.CollectingSink sink = ByteSink.collecting((int) size);
+        try (sink) {
+            engine.write(new FileSpec(format, 1, size, new SplittableRandom(SEED), content), sink);
+        }
+        return Arrays.copyOf(sink.array(), (int) sink.position());
+    }
+
+    /** What a compressor of the format's content sees: the file itself, or the text inside it. */
+    private static byte[] payload(String format, byte[] file) throws IOException {
+        return switch (format) {
+            case "pdf" -> matches(PDF_TEXT, file);
+            case "xlsx" -> matches(XLSX_TEXT, unzip(file, "xl/worksheets/"));
+            case "docx" -> matches(DOCX_TEXT, unzip(file, "word/document.xml"));
+            default -> file;
+        };
+    }
+
+    private static byte[] unzip(byte[] file, String prefix) throws IOException {
+        ByteArrayOutputStream parts = new ByteArrayOutputStream();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(file))) {
+            for (ZipEntry e = zip.getNextEntry(); e != null; e = zip.getNextEntry()) {
+                if (e.getName().startsWith(prefix)) zip.transferTo(parts);
+            }
+        }
+        return parts.toByteArray();
+    }
+
+    private static byte[] matches(Pattern pattern, byte[] data) {
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        Matcher m = pattern.matcher(new String(data, StandardCharsets.ISO_8859_1));
+        while (m.find()) text.writeBytes(m.group(1).getBytes(StandardCharsets.ISO_8859_1));
+        assertTrue(text.size() > SIZE / 4, "too little text found: " + text.size());
+        return text.toByteArray();
+    }
+
+    private static double deflateSaving(byte[] data) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            byte[] out = new byte[64 * 1024];
+            long compressed = 0;
+            while (!deflater.finished()) compressed += deflater.deflate(out);
+            return 1 - compressed / (double) data.length;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static double zstdSaving(byte[] data) {
+        return 1 - Zstd.compress(data, 3).length / (double) data.length;
+    }
+}